@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.Option;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+	private static final int SIZE = 10_000;
+
+	private Cache<Integer, Integer> cache;
+	private Map<Integer, Integer> lru;
+
+	@Setup
+	public void setup() {
+
+		this.cache = Cache.<Integer, Integer>builder().maximumSize(SIZE).build();
+		this.lru = Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+				return size() > SIZE;
+			}
+		});
+
+		for (int i = 0; i < SIZE; i++) {
+			cache.put(i, i);
+			lru.put(i, i);
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Option<Integer> cacheRead_1thread() {
+		return cache.get(ThreadLocalRandom.current().nextInt(SIZE));
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Option<Integer> cacheRead_maxThreads() {
+		return cache.get(ThreadLocalRandom.current().nextInt(SIZE));
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Integer cacheReadWrite_maxThreads() {
+		int key = ThreadLocalRandom.current().nextInt(SIZE * 2);
+		return cache.computeIfAbsent(key, k -> k);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Integer lruRead_1thread() {
+		return lru.get(ThreadLocalRandom.current().nextInt(SIZE));
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Integer lruRead_maxThreads() {
+		return lru.get(ThreadLocalRandom.current().nextInt(SIZE));
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Integer lruReadWrite_maxThreads() {
+		int key = ThreadLocalRandom.current().nextInt(SIZE * 2);
+		return lru.computeIfAbsent(key, k -> k);
+	}
+}
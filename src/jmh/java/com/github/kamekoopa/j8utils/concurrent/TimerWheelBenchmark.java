@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.concurrent;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerWheelBenchmark {
+
+	@Param({"0", "100000"})
+	public int backlog;
+
+	private TimerWheel timer;
+	private ScheduledThreadPoolExecutor scheduler;
+
+	@Setup
+	public void setup() {
+
+		this.timer = new TimerWheel(10, TimeUnit.MILLISECONDS, 512);
+		this.scheduler = new ScheduledThreadPoolExecutor(1);
+		this.scheduler.setRemoveOnCancelPolicy(true);
+
+		// 多数のタイムアウトが保留されている状態を再現する
+		for (int i = 0; i < backlog; i++) {
+			timer.schedule(() -> {}, 1, TimeUnit.HOURS);
+			scheduler.schedule(() -> {}, 1, TimeUnit.HOURS);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		timer.stop();
+		scheduler.shutdownNow();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean timerWheel_scheduleAndCancel() {
+		return timer.schedule(() -> {}, 1, TimeUnit.SECONDS).cancel();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean scheduledExecutor_scheduleAndCancel() {
+		ScheduledFuture<?> future = scheduler.schedule(() -> {}, 1, TimeUnit.SECONDS);
+		return future.cancel(false);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean timerWheel_scheduleAndCancel_maxThreads() {
+		return timer.schedule(() -> {}, 1, TimeUnit.SECONDS).cancel();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean scheduledExecutor_scheduleAndCancel_maxThreads() {
+		ScheduledFuture<?> future = scheduler.schedule(() -> {}, 1, TimeUnit.SECONDS);
+		return future.cancel(false);
+	}
+}
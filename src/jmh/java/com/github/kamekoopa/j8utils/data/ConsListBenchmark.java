@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsListBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	private int size;
+
+	private List<Integer> list;
+	private ConsList<Integer> consList;
+
+	@Setup
+	public void setup() {
+		this.list = IntStream.range(0, size).boxed().collect(Collectors.toList());
+		this.consList = ConsList.from(list);
+	}
+
+	@Benchmark
+	public long list_headTail() {
+		long sum = 0;
+		for (List<Integer> l = list; !l.isEmpty(); l = Utils.tail(l)) {
+			sum += Utils.head(l);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long consList_headTail() {
+		long sum = 0;
+		for (ConsList<Integer> l = consList; !l.isEmpty(); l = Utils.tail(l)) {
+			sum += Utils.head(l);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public ConsList<Integer> consList_prepend() {
+		return consList.prepend(-1);
+	}
+
+	@Benchmark
+	public ConsList<Integer> consList_from() {
+		return ConsList.from(list);
+	}
+
+	@Benchmark
+	public long consList_stream() {
+		return consList.stream().mapToLong(Integer::longValue).sum();
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EitherBenchmark {
+
+	private String value = "value";
+	private Either<Exception, String> right;
+	private Either<Exception, String> left;
+
+	@Setup
+	public void setup() {
+		this.right = Either.right(value);
+		this.left = Either.left(new Exception("error"));
+	}
+
+	@Benchmark
+	public Either<Exception, String> either_right() {
+		return Either.right(value);
+	}
+
+	@Benchmark
+	public Either<Exception, Integer> either_map() {
+		return right.map(String::length);
+	}
+
+	@Benchmark
+	public Either<Exception, Integer> either_map_onLeft() {
+		return left.map(String::length);
+	}
+
+	@Benchmark
+	public Either<Exception, Integer> either_mape() throws Exception {
+		return right.mape(String::length);
+	}
+
+	@Benchmark
+	public Either<Exception, Integer> either_flatMap() {
+		return right.flatMap(s -> Either.right(s.length()));
+	}
+
+	@Benchmark
+	public Either<Exception, Integer> either_flatMape() throws Exception {
+		return right.flatMape(s -> Either.right(s.length()));
+	}
+
+	@Benchmark
+	public Integer either_fold() {
+		return right.fold(e -> -1, String::length);
+	}
+
+	@Benchmark
+	public Integer plain_branch() {
+		Object v = value;
+		if (v instanceof Exception) {
+			return -1;
+		} else {
+			return ((String) v).length();
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder.Future;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FutureBenchmark {
+
+	private ExecutorService executor;
+	private FutureBuilder builder;
+
+	@Setup
+	public void setup() {
+		this.executor = Executors.newFixedThreadPool(4);
+		this.builder = FutureBuilder.buildWith(executor);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.executor.shutdown();
+	}
+
+	@Benchmark
+	public Try<String> future_run() {
+		return builder.run(() -> "value").tryGet();
+	}
+
+	@Benchmark
+	public String completableFuture_supplyAsync() throws Exception {
+		return CompletableFuture.supplyAsync(() -> "value", executor).get();
+	}
+
+	@Benchmark
+	public Try<Integer> future_map() {
+		return builder.run(() -> "value")
+			.map(String::length)
+			.tryGet();
+	}
+
+	@Benchmark
+	public Integer completableFuture_thenApplyAsync() throws Exception {
+		return CompletableFuture.supplyAsync(() -> "value", executor)
+			.thenApplyAsync(String::length, executor)
+			.get();
+	}
+
+	@Benchmark
+	public Try<Integer> future_flatMap() {
+		return builder.run(() -> "value")
+			.flatMap(s -> builder.run(s::length))
+			.tryGet();
+	}
+
+	@Benchmark
+	public Integer completableFuture_thenComposeAsync() throws Exception {
+		return CompletableFuture.supplyAsync(() -> "value", executor)
+			.thenComposeAsync(s -> CompletableFuture.supplyAsync(s::length, executor), executor)
+			.get();
+	}
+
+	@Benchmark
+	public Try<String> future_ap2() {
+		Future<String> fa = builder.run(() -> "a");
+		Future<String> fb = builder.run(() -> "b");
+		return fa.ap(fb, (a, b) -> a + b).tryGet();
+	}
+
+	@Benchmark
+	public String completableFuture_thenCombine() throws Exception {
+		CompletableFuture<String> fa = CompletableFuture.supplyAsync(() -> "a", executor);
+		CompletableFuture<String> fb = CompletableFuture.supplyAsync(() -> "b", executor);
+		return fa.thenCombine(fb, (a, b) -> a + b).get();
+	}
+
+	@Benchmark
+	public Try<String> future_ap5() {
+		Future<String> fa = builder.run(() -> "a");
+		Future<String> fb = builder.run(() -> "b");
+		Future<String> fc = builder.run(() -> "c");
+		Future<String> fd = builder.run(() -> "d");
+		Future<String> fe = builder.run(() -> "e");
+		return fa.ap(fb, fc, fd, fe, (a, b, c, d, e) -> a + b + c + d + e).tryGet();
+	}
+
+	@Benchmark
+	public String completableFuture_allOf5() throws Exception {
+		CompletableFuture<String> fa = CompletableFuture.supplyAsync(() -> "a", executor);
+		CompletableFuture<String> fb = CompletableFuture.supplyAsync(() -> "b", executor);
+		CompletableFuture<String> fc = CompletableFuture.supplyAsync(() -> "c", executor);
+		CompletableFuture<String> fd = CompletableFuture.supplyAsync(() -> "d", executor);
+		CompletableFuture<String> fe = CompletableFuture.supplyAsync(() -> "e", executor);
+		return CompletableFuture.allOf(fa, fb, fc, fd, fe)
+			.thenApply(v -> fa.join() + fb.join() + fc.join() + fd.join() + fe.join())
+			.get();
+	}
+
+	@Benchmark
+	public Try<String> future_tryGetWithTimeout() {
+		return builder.run(() -> "value").tryGet(1L, TimeUnit.SECONDS);
+	}
+
+	@Benchmark
+	public Try<Tuple5<String, String, String, String, String>> future_zip5() {
+		Future<String> fa = builder.run(() -> "a");
+		Future<String> fb = builder.run(() -> "b");
+		Future<String> fc = builder.run(() -> "c");
+		Future<String> fd = builder.run(() -> "d");
+		Future<String> fe = builder.run(() -> "e");
+		return fa.zip(fb, fc, fd, fe).tryGet();
+	}
+
+	@Benchmark
+	public Try<List<Integer>> future_sequence1000() {
+		List<Future<Integer>> futures = new ArrayList<>(1000);
+		for (int i = 0; i < 1000; i++) {
+			int n = i;
+			futures.add(builder.run(() -> n));
+		}
+		return builder.sequence(futures).tryGet();
+	}
+
+	@Benchmark
+	public List<Integer> completableFuture_allOf1000() throws Exception {
+		List<CompletableFuture<Integer>> futures = new ArrayList<>(1000);
+		for (int i = 0; i < 1000; i++) {
+			int n = i;
+			futures.add(CompletableFuture.supplyAsync(() -> n, executor));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+			.thenApply(v -> {
+				List<Integer> result = new ArrayList<>(futures.size());
+				for (CompletableFuture<Integer> future : futures) {
+					result.add(future.join());
+				}
+				return result;
+			})
+			.get();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder.Future;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FutureChainBenchmark {
+
+	@Param({"1", "10", "50"})
+	private int stages;
+
+	private ExecutorService executor;
+	private FutureBuilder async;
+	private FutureBuilder sameThread;
+
+	@Setup
+	public void setup() {
+		this.executor = Executors.newFixedThreadPool(4);
+		this.async = FutureBuilder.buildWith(executor);
+		this.sameThread = FutureBuilder.buildWith(executor).sameThread();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.executor.shutdown();
+	}
+
+	@Benchmark
+	public Try<Integer> async_map() {
+		return mapChain(async);
+	}
+
+	@Benchmark
+	public Try<Integer> sameThread_map() {
+		return mapChain(sameThread);
+	}
+
+	@Benchmark
+	public Try<Integer> async_flatMap() {
+		return flatMapChain(async);
+	}
+
+	@Benchmark
+	public Try<Integer> sameThread_flatMap() {
+		return flatMapChain(sameThread);
+	}
+
+	private Try<Integer> mapChain(FutureBuilder builder) {
+		Future<Integer> future = builder.run(() -> 0);
+		for (int i = 0; i < stages; i++) {
+			future = future.map(n -> n + 1);
+		}
+		return future.tryGet();
+	}
+
+	private Try<Integer> flatMapChain(FutureBuilder builder) {
+		Future<Integer> future = builder.run(() -> 0);
+		for (int i = 0; i < stages; i++) {
+			future = future.flatMap(n -> builder.run(() -> n + 1));
+		}
+		return future.tryGet();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.utils.SE;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyValBenchmark {
+
+	private LazyVal<String> lazyVal;
+	private LazyVal<String> nullLazyVal;
+	private LockedLazyVal<String> lockedLazyVal;
+
+	@Setup
+	public void setup() throws Exception {
+		this.lazyVal = LazyVal.of(() -> "value");
+		this.nullLazyVal = LazyVal.of(() -> null);
+		this.lockedLazyVal = new LockedLazyVal<>(() -> "value");
+
+		this.lazyVal.get();
+		this.nullLazyVal.get();
+		this.lockedLazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String lazyVal_1thread() {
+		return lazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String lazyVal_4threads() {
+		return lazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String lazyVal_maxThreads() {
+		return lazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String lazyValNull_maxThreads() {
+		return nullLazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String locked_1thread() throws Exception {
+		return lockedLazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String locked_4threads() throws Exception {
+		return lockedLazyVal.get();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String locked_maxThreads() throws Exception {
+		return lockedLazyVal.get();
+	}
+
+	private static class LockedLazyVal<A> {
+
+		private final Object lock = new Object();
+
+		private final SE<? extends A> supplier;
+		private A cache = null;
+
+		private LockedLazyVal(SE<? extends A> supplier) {
+			this.supplier = supplier;
+		}
+
+		public A get() throws Exception {
+
+			synchronized (lock) {
+				if (cache == null) {
+					this.cache = supplier.get();
+				}
+			}
+
+			return cache;
+		}
+	}
+}
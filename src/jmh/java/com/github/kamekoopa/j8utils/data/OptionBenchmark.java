@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionBenchmark {
+
+	private String value = "value";
+	private Option<String> some;
+	private Option<String> none;
+	private Optional<String> optionalSome;
+	private Optional<String> optionalNone;
+
+	@Setup
+	public void setup() {
+		this.some = Option.of(value);
+		this.none = Option.none();
+		this.optionalSome = Optional.of(value);
+		this.optionalNone = Optional.empty();
+	}
+
+	@Benchmark
+	public Option<String> option_of() {
+		return Option.of(value);
+	}
+
+	@Benchmark
+	public Optional<String> optional_of() {
+		return Optional.ofNullable(value);
+	}
+
+	@Benchmark
+	public Option<Integer> option_map() {
+		return some.map(String::length);
+	}
+
+	@Benchmark
+	public Optional<Integer> optional_map() {
+		return optionalSome.map(String::length);
+	}
+
+	@Benchmark
+	public Option<Integer> option_mapNone() {
+		return none.map(String::length);
+	}
+
+	@Benchmark
+	public Optional<Integer> optional_mapNone() {
+		return optionalNone.map(String::length);
+	}
+
+	@Benchmark
+	public Option<Integer> option_flatMap() {
+		return some.flatMap(s -> Option.of(s.length()));
+	}
+
+	@Benchmark
+	public Optional<Integer> optional_flatMap() {
+		return optionalSome.flatMap(s -> Optional.of(s.length()));
+	}
+
+	@Benchmark
+	public Option<String> option_filter() {
+		return some.filter(s -> !s.isEmpty());
+	}
+
+	@Benchmark
+	public Optional<String> optional_filter() {
+		return optionalSome.filter(s -> !s.isEmpty());
+	}
+
+	@Benchmark
+	public Integer option_fold() {
+		return some.fold(() -> 0, String::length);
+	}
+
+	@Benchmark
+	public Integer optional_mapOrElse() {
+		return optionalSome.map(String::length).orElseGet(() -> 0);
+	}
+
+	@Benchmark
+	public String option_getOrElse() {
+		return none.getOrElse(() -> value);
+	}
+
+	@Benchmark
+	public String optional_orElseGet() {
+		return optionalNone.orElseGet(() -> value);
+	}
+
+	@Benchmark
+	public Option<String> option_or() {
+		return none.or(() -> some);
+	}
+
+	@Benchmark
+	public Option<String> option_ifEmpty() {
+		return none.ifEmpty(() -> value);
+	}
+
+	@Benchmark
+	public Option<String> option_peek() {
+		return some.peek(() -> {}, s -> {});
+	}
+
+	@Benchmark
+	public Option<String> option_ap2() {
+		return some.ap(some, (a, b) -> a);
+	}
+
+	@Benchmark
+	public Optional<String> optional_ap2() {
+		return optionalSome.flatMap(a -> optionalSome.map(b -> a));
+	}
+
+	@Benchmark
+	public Option<String> option_ap5() {
+		return some.ap(some, some, some, some, (a, b, c, d, e) -> a);
+	}
+
+	@Benchmark
+	public long option_stream() {
+		return some.stream().count();
+	}
+
+	@Benchmark
+	public long optional_stream() {
+		return optionalSome.map(s -> 1L).orElse(0L);
+	}
+
+	@Benchmark
+	public Option<String> option_from() {
+		return Option.from(optionalSome);
+	}
+}
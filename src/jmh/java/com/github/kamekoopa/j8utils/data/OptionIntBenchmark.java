@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionIntBenchmark {
+
+	private int value = 1000;
+	private OptionInt optionInt;
+	private Option<Integer> option;
+	private OptionalInt optionalInt;
+
+	@Setup
+	public void setup() {
+		this.optionInt = OptionInt.of(value);
+		this.option = Option.of(value);
+		this.optionalInt = OptionalInt.of(value);
+	}
+
+	@Benchmark
+	public OptionInt optionInt_of() {
+		return OptionInt.of(value);
+	}
+
+	@Benchmark
+	public Option<Integer> option_of() {
+		return Option.of(value);
+	}
+
+	@Benchmark
+	public OptionInt optionInt_map() {
+		return optionInt.map(i -> i + 1);
+	}
+
+	@Benchmark
+	public Option<Integer> option_map() {
+		return option.map(i -> i + 1);
+	}
+
+	@Benchmark
+	public OptionLong optionInt_mapToLong() {
+		return optionInt.mapToLong(i -> i * 2L);
+	}
+
+	@Benchmark
+	public int optionInt_foldInt() {
+		return optionInt.foldInt(() -> 0, i -> i + 1);
+	}
+
+	@Benchmark
+	public int option_fold() {
+		return option.fold(() -> 0, i -> i + 1);
+	}
+
+	@Benchmark
+	public int optionalInt_orElse() {
+		return optionalInt.orElse(0) + 1;
+	}
+
+	@Benchmark
+	public OptionInt optionInt_ap() {
+		return optionInt.ap(optionInt, (a, b) -> a + b);
+	}
+
+	@Benchmark
+	public Option<Integer> option_ap() {
+		return option.ap(option, (a, b) -> a + b);
+	}
+
+	@Benchmark
+	public int optionInt_stream() {
+		return optionInt.stream().sum();
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TryBenchmark {
+
+	private String value = "value";
+	private Exception exception = new Exception("error");
+	private Try<String> success;
+	private Try<String> failure;
+
+	@Setup
+	public void setup() {
+		this.success = Try.success(value);
+		this.failure = Try.failure(exception);
+	}
+
+	@Benchmark
+	public Try<String> try_ofSuccess() {
+		return Try.of(() -> value);
+	}
+
+	@Benchmark
+	public String plain_trySuccess() {
+		try {
+			return value;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	@Benchmark
+	public Try<String> try_ofFailure() {
+		return Try.of(() -> { throw exception; });
+	}
+
+	@Benchmark
+	public Exception plain_tryFailure() {
+		try {
+			throw exception;
+		} catch (Exception e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Try<String> try_ofNewException() {
+		return Try.of(() -> { throw new Exception("error"); });
+	}
+
+	@Benchmark
+	public Try<Integer> try_map() {
+		return success.map(String::length);
+	}
+
+	@Benchmark
+	public Try<Integer> try_mapFailure() {
+		return failure.map(String::length);
+	}
+
+	@Benchmark
+	public Try<Integer> try_mape() throws Exception {
+		return success.mape(String::length);
+	}
+
+	@Benchmark
+	public Try<Integer> try_failableMap() {
+		return success.failableMap(String::length);
+	}
+
+	@Benchmark
+	public Try<Integer> try_flatMap() {
+		return success.flatMap(s -> Try.success(s.length()));
+	}
+
+	@Benchmark
+	public Try<Integer> try_flatMapFailure() {
+		return failure.flatMap(s -> Try.success(s.length()));
+	}
+
+	@Benchmark
+	public Try<String> try_filter() {
+		return success.filter(s -> !s.isEmpty(), () -> exception);
+	}
+
+	@Benchmark
+	public Integer try_fold() {
+		return success.fold(String::length, e -> -1);
+	}
+
+	@Benchmark
+	public String try_recover() {
+		return failure.recover(Exception::getMessage);
+	}
+
+	@Benchmark
+	public Option<String> try_toOption() {
+		return success.toOption();
+	}
+
+	@Benchmark
+	public Either<Exception, String> try_toEither() {
+		return success.toEither();
+	}
+
+	@Benchmark
+	public Try<String> try_peek() {
+		return success.peek(s -> {}, e -> {});
+	}
+
+	@Benchmark
+	public Try<String> try_ap2() {
+		return success.ap(success, (a, b) -> a);
+	}
+
+	@Benchmark
+	public Try<String> try_ap5() {
+		return success.ap(success, success, success, success, (a, b, c, d, e) -> a);
+	}
+}
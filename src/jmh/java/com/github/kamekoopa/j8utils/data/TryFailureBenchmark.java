@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TryFailureBenchmark {
+
+	private static final StacklessException INVALID = new StacklessException("invalid");
+	private static final StackTracePolicy SAMPLED = StackTracePolicy.sampled(0.01);
+
+	@Param({"0", "10", "90"})
+	private int failurePercent;
+
+	private int[] inputs;
+	private int index;
+
+	@Setup
+	public void setup() {
+		this.inputs = new int[1024];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = i % 100 < failurePercent ? -1 : i;
+		}
+	}
+
+	private int next() {
+		return inputs[index++ & (inputs.length - 1)];
+	}
+
+	@Benchmark
+	public Try<Integer> newException() {
+		int n = next();
+		return validate(n, () -> Try.failure(new IllegalArgumentException("invalid")));
+	}
+
+	@Benchmark
+	public Try<Integer> policyNever() {
+		int n = next();
+		return validate(n, () -> Try.failureOf("invalid", StackTracePolicy.never()));
+	}
+
+	@Benchmark
+	public Try<Integer> policySampled() {
+		int n = next();
+		return validate(n, () -> Try.failureOf("invalid", SAMPLED));
+	}
+
+	@Benchmark
+	public Try<Integer> sharedStackless() {
+		int n = next();
+		return validate(n, () -> Try.failure(INVALID));
+	}
+
+	private Try<Integer> validate(int n, Supplier<Try<Integer>> failure) {
+		Try<Integer> t = n < 0 ? failure.get() : Try.success(n);
+		return t
+			.map(i -> i + 1)
+			.flatMap(i -> Try.success(i * 2))
+			.map(i -> i - 1);
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleBenchmark {
+
+	private String a = "a";
+	private Integer b = 1;
+	private Tuple2<String, Integer> tuple2;
+	private Tuple3<String, Integer, String> tuple3;
+	private Tuple4<String, Integer, String, Integer> tuple4;
+	private Tuple5<String, Integer, String, Integer, String> tuple5;
+	private Map.Entry<String, Integer> entry;
+
+	@Setup
+	public void setup() {
+		this.tuple2 = Tuple2.of(a, b);
+		this.tuple3 = Tuple3.of(a, b, a);
+		this.tuple4 = Tuple4.of(a, b, a, b);
+		this.tuple5 = Tuple5.of(a, b, a, b, a);
+		this.entry = new AbstractMap.SimpleImmutableEntry<>(a, b);
+	}
+
+	@Benchmark
+	public Tuple2<String, Integer> tuple2_of() {
+		return Tuple2.of(a, b);
+	}
+
+	@Benchmark
+	public Map.Entry<String, Integer> entry_new() {
+		return new AbstractMap.SimpleImmutableEntry<>(a, b);
+	}
+
+	@Benchmark
+	public Tuple3<String, Integer, String> tuple3_of() {
+		return Tuple3.of(a, b, a);
+	}
+
+	@Benchmark
+	public Tuple4<String, Integer, String, Integer> tuple4_of() {
+		return Tuple4.of(a, b, a, b);
+	}
+
+	@Benchmark
+	public Tuple5<String, Integer, String, Integer, String> tuple5_of() {
+		return Tuple5.of(a, b, a, b, a);
+	}
+
+	@Benchmark
+	public Tuple2<Integer, Integer> tuple2_mod1() {
+		return tuple2.mod1(String::length);
+	}
+
+	@Benchmark
+	public Tuple2<String, Integer> tuple2_mod2() {
+		return tuple2.mod2(i -> i + 1);
+	}
+
+	@Benchmark
+	public Tuple2<Integer, Integer> tuple2_mod1e() throws Exception {
+		return tuple2.mod1e(String::length);
+	}
+
+	@Benchmark
+	public Tuple3<String, Integer, Integer> tuple3_mod3() {
+		return tuple3.mod3(String::length);
+	}
+
+	@Benchmark
+	public int tuple2_hashCode() {
+		return tuple2.hashCode();
+	}
+
+	@Benchmark
+	public int entry_hashCode() {
+		return entry.hashCode();
+	}
+
+	@Benchmark
+	public boolean tuple2_equals() {
+		return tuple2.equals(Tuple2.of(a, b));
+	}
+
+	@Benchmark
+	public boolean tuple4_equals() {
+		return tuple4.equals(Tuple4.of(a, b, a, b));
+	}
+
+	@Benchmark
+	public boolean tuple5_equals() {
+		return tuple5.equals(Tuple5.of(a, b, a, b, a));
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.utils;
+
+import com.github.kamekoopa.j8utils.data.Option;
+import com.github.kamekoopa.j8utils.data.Tuple2;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+	@Param({"10", "1000"})
+	private int size;
+
+	private List<Integer> list;
+	private List<String> strings;
+	private Map<Integer, String> map;
+	private List<Option<Integer>> options;
+
+	@Setup
+	public void setup() {
+		this.list = IntStream.range(0, size).boxed().collect(Collectors.toList());
+		this.strings = list.stream().map(String::valueOf).collect(Collectors.toList());
+		this.map = new HashMap<>();
+		list.forEach(i -> map.put(i, String.valueOf(i)));
+		this.options = list.stream().map(i -> i % 2 == 0 ? Option.of(i) : Option.<Integer>none()).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Option<Integer> utils_getList() {
+		return Utils.get(list, size / 2);
+	}
+
+	@Benchmark
+	public Integer plain_getList() {
+		int i = size / 2;
+		return i < list.size() ? list.get(i) : null;
+	}
+
+	@Benchmark
+	public Option<Integer> utils_getListOutOfRange() {
+		return Utils.get(list, size);
+	}
+
+	@Benchmark
+	public Option<String> utils_getMap() {
+		return Utils.get(map, size / 2);
+	}
+
+	@Benchmark
+	public Optional<String> optional_getMap() {
+		return Optional.ofNullable(map.get(size / 2));
+	}
+
+	@Benchmark
+	public Option<String> utils_getMapMissing() {
+		return Utils.get(map, -1);
+	}
+
+	@Benchmark
+	public long utils_keyValueStream() {
+		return Utils.keyValueStream(map).count();
+	}
+
+	@Benchmark
+	public long plain_entryStream() {
+		return map.entrySet().stream().count();
+	}
+
+	@Benchmark
+	public Integer utils_head() {
+		return Utils.head(list);
+	}
+
+	@Benchmark
+	public Option<Integer> utils_headOption() {
+		return Utils.headOption(list);
+	}
+
+	@Benchmark
+	public List<Integer> utils_tail() {
+		return Utils.tail(list);
+	}
+
+	@Benchmark
+	public List<Integer> plain_subList() {
+		return list.subList(1, list.size());
+	}
+
+	@Benchmark
+	public List<Tuple2<Integer, String>> utils_zipList() {
+		return Utils.zip(list, strings);
+	}
+
+	@Benchmark
+	public List<Map.Entry<Integer, String>> plain_zipList() {
+		List<Map.Entry<Integer, String>> result = new ArrayList<>();
+		int n = Math.min(list.size(), strings.size());
+		for (int i = 0; i < n; i++) {
+			result.add(new AbstractMap.SimpleImmutableEntry<>(list.get(i), strings.get(i)));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<Tuple2<Integer, String>> utils_zipWithIndexList() {
+		return Utils.zipWithIndex(strings);
+	}
+
+	@Benchmark
+	public long utils_zipStream() {
+		return Utils.zip(list.stream(), strings.stream()).count();
+	}
+
+	@Benchmark
+	public long utils_zipWithStream() {
+		return Utils.zipWith(list.stream(), strings.stream(), (i, s) -> i + s.length()).count();
+	}
+
+	@Benchmark
+	public long utils_zipWithIndexStream() {
+		return Utils.zipWithIndex(strings.stream()).count();
+	}
+
+	@Benchmark
+	public long utils_mapWithIndexStream() {
+		return Utils.mapWithIndex(strings.stream(), (i, s) -> i + s.length()).count();
+	}
+
+	@Benchmark
+	public List<Integer> utils_mapWithIndexList() {
+		return Utils.mapWithIndex(strings, (i, s) -> i + s.length());
+	}
+
+	@Benchmark
+	public long utils_forEachWithIndex() {
+		long[] acc = { 0 };
+		Utils.forEachWithIndex(strings, (i, s) -> acc[0] += i + s.length());
+		return acc[0];
+	}
+
+	@Benchmark
+	public Tuple2<Integer, String> utils_zipWithIndexView() {
+		return Utils.zipWithIndexView(strings).get(size / 2);
+	}
+
+	@Benchmark
+	public long plain_indexedLoop() {
+		long acc = 0;
+		for (int i = 0; i < strings.size(); i++) {
+			acc += i + strings.get(i).length();
+		}
+		return acc;
+	}
+
+	@Benchmark
+	public List<Integer> utils_filterSome() {
+		return Utils.filterSome(options);
+	}
+
+	@Benchmark
+	public List<Integer> plain_filterNonNull() {
+		List<Integer> result = new ArrayList<>();
+		for (Option<Integer> o : options) {
+			if (o.isSome()) {
+				result.add(o.getOrElse(() -> null));
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<Integer> utils_takeWhile() {
+		return Utils.takeWhile(list, i -> i < size / 2);
+	}
+
+	@Benchmark
+	public List<Integer> plain_takeWhile() {
+		List<Integer> result = new ArrayList<>();
+		for (Integer i : list) {
+			if (i < size / 2) {
+				result.add(i);
+			} else {
+				break;
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public long utils_stream() {
+		return Utils.stream(list).count();
+	}
+
+	@Benchmark
+	public long utils_pstream() {
+		return Utils.pstream(list).count();
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ZipBenchmark {
+
+	@Param({"1000000", "10000000", "100000000"})
+	private int size;
+
+	private Stream<Integer> source(boolean parallel) {
+		Stream<Integer> stream = IntStream.range(0, size).boxed();
+		return parallel ? stream.parallel() : stream;
+	}
+
+	@Benchmark
+	public long zipWith_sequential() {
+		return Utils.zipWith(source(false), source(false), Integer::sum)
+			.mapToLong(Integer::longValue)
+			.sum();
+	}
+
+	@Benchmark
+	public long zipWith_parallel() {
+		return Utils.zipWith(source(true), source(true), Integer::sum)
+			.mapToLong(Integer::longValue)
+			.sum();
+	}
+
+	@Benchmark
+	public long zipWith_parallelUnsized() {
+		return Utils.zipWith(Stream.iterate(0, i -> i + 1).parallel(), source(true), Integer::sum)
+			.mapToLong(Integer::longValue)
+			.sum();
+	}
+
+	@Benchmark
+	public long plain_parallelRange() {
+		return IntStream.range(0, size).parallel()
+			.mapToLong(i -> (long) i + i)
+			.sum();
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public class AsyncCache<K, V> {
+
+	private final FutureBuilder builder;
+	private final Function<? super K, ? extends V> loader;
+	private final Cache<K, Entry<V>> cache;
+	private final long refreshAfterWriteNanos;
+	private final LongSupplier ticker;
+
+	private AsyncCache(Builder<K, V> builder, Function<? super K, ? extends V> loader) {
+		this.builder = builder.futureBuilder;
+		this.loader = loader;
+		this.cache = builder.cacheBuilder.build();
+		this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+		this.ticker = builder.ticker;
+	}
+
+	public static <K, V> Builder<K, V> builder(FutureBuilder futureBuilder) {
+		return new Builder<>(Objects.requireNonNull(futureBuilder));
+	}
+
+	public FutureBuilder.Future<V> get(K key) {
+
+		boolean[] created = new boolean[1];
+		Entry<V> entry = cache.computeIfAbsent(key, k -> {
+			created[0] = true;
+			return new Entry<>(new CompletableFuture<>(), ticker.getAsLong());
+		});
+
+		if (created[0]) {
+			load(key, entry);
+		} else {
+			refreshIfNeeded(key, entry);
+		}
+
+		return builder.from(entry.future);
+	}
+
+	public Option<FutureBuilder.Future<V>> getIfPresent(K key) {
+		return cache.get(key).map(entry -> builder.from(entry.future));
+	}
+
+	public void put(K key, V value) {
+		cache.put(key, new Entry<>(CompletableFuture.completedFuture(value), ticker.getAsLong()));
+	}
+
+	public void invalidate(K key) {
+		cache.invalidate(key);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public long estimatedSize() {
+		return cache.estimatedSize();
+	}
+
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	public void cleanUp() {
+		cache.cleanUp();
+	}
+
+	private void load(K key, Entry<V> entry) {
+
+		try {
+			builder.<V>run(() -> loader.apply(key)).toCompletableFuture().whenComplete((value, e) -> {
+				if (e != null) {
+					cache.invalidate(key, entry);
+					entry.future.completeExceptionally(e);
+				} else {
+					entry.future.complete(value);
+				}
+			});
+		} catch (RuntimeException | Error e) {
+			cache.invalidate(key, entry);
+			entry.future.completeExceptionally(e);
+		}
+	}
+
+	private void refreshIfNeeded(K key, Entry<V> entry) {
+
+		if (refreshAfterWriteNanos <= 0
+			|| !entry.future.isDone()
+			|| entry.future.isCompletedExceptionally()
+			|| ticker.getAsLong() - entry.loadedAt < refreshAfterWriteNanos
+			|| !entry.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			builder.<V>run(() -> loader.apply(key)).toCompletableFuture().whenComplete((value, e) -> {
+				if (e == null) {
+					Entry<V> refreshed = new Entry<>(CompletableFuture.completedFuture(value), ticker.getAsLong());
+					cache.replace(key, entry, refreshed);
+				} else {
+					// 古い値を使い続け、次の読み込みで再度更新を試みる
+					entry.refreshing.set(false);
+				}
+			});
+		} catch (RuntimeException | Error e) {
+			entry.refreshing.set(false);
+		}
+	}
+
+	private static class Entry<V> {
+
+		private final CompletableFuture<V> future;
+		private final long loadedAt;
+		private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		Entry(CompletableFuture<V> future, long loadedAt) {
+			this.future = future;
+			this.loadedAt = loadedAt;
+		}
+	}
+
+	public static class Builder<K, V> {
+
+		private final FutureBuilder futureBuilder;
+		private final Cache.Builder<K, Entry<V>> cacheBuilder = Cache.builder();
+		private long refreshAfterWriteNanos = 0;
+		private LongSupplier ticker = System::nanoTime;
+
+		private Builder(FutureBuilder futureBuilder) {
+			this.futureBuilder = futureBuilder;
+		}
+
+		public Builder<K, V> maximumSize(long maximumSize) {
+			cacheBuilder.maximumSize(maximumSize);
+			return this;
+		}
+
+		public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+			cacheBuilder.expireAfterWrite(duration, unit);
+			return this;
+		}
+
+		public Builder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+			cacheBuilder.expireAfterAccess(duration, unit);
+			return this;
+		}
+
+		public Builder<K, V> refreshAfterWrite(long duration, TimeUnit unit) {
+			if (duration <= 0) {
+				throw new IllegalArgumentException("duration must be positive: " + duration);
+			}
+			this.refreshAfterWriteNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		public Builder<K, V> ticker(LongSupplier ticker) {
+			this.ticker = Objects.requireNonNull(ticker);
+			cacheBuilder.ticker(ticker);
+			return this;
+		}
+
+		public AsyncCache<K, V> build(Function<? super K, ? extends V> loader) {
+			return new AsyncCache<>(this, Objects.requireNonNull(loader));
+		}
+	}
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.concurrent.TimerWheel;
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class BatchLoader<K, V> {
+
+	public enum Trigger {
+		SIZE, TIME, MANUAL
+	}
+
+	private final FutureBuilder builder;
+	private final Function<? super List<K>, ? extends Map<? extends K, ? extends V>> bulkLoader;
+	private final int maxBatchSize;
+	private final long maxDelayNanos;
+	private final TimerWheel timer;
+	private final Executor executor;
+	private final Consumer<? super BatchMetrics> listener;
+
+	private final Object lock = new Object();
+	private Batch<K, V> current = null;
+
+	private final LongAdder batchCount = new LongAdder();
+	private final LongAdder requestCount = new LongAdder();
+	private final LongAdder keyCount = new LongAdder();
+	private final LongAdder failureCount = new LongAdder();
+
+	private BatchLoader(Builder<K, V> builder, Function<? super List<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+		this.builder = builder.futureBuilder;
+		this.bulkLoader = bulkLoader;
+		this.maxBatchSize = builder.maxBatchSize;
+		this.maxDelayNanos = builder.maxDelayNanos;
+		this.timer = builder.timer;
+		this.executor = builder.executor;
+		this.listener = builder.listener;
+	}
+
+	public static <K, V> Builder<K, V> builder(FutureBuilder futureBuilder) {
+		return new Builder<>(Objects.requireNonNull(futureBuilder));
+	}
+
+	public FutureBuilder.Future<Option<V>> load(K key) {
+
+		Objects.requireNonNull(key);
+
+		CompletableFuture<Option<V>> future;
+		Batch<K, V> full = null;
+
+		synchronized (lock) {
+			if (current == null) {
+				Batch<K, V> batch = new Batch<>();
+				batch.timeout = timer.schedule(() -> flush(batch, Trigger.TIME), maxDelayNanos, TimeUnit.NANOSECONDS);
+				this.current = batch;
+			}
+
+			future = current.add(key);
+			if (current.waiters.size() >= maxBatchSize) {
+				full = current;
+				this.current = null;
+			}
+		}
+
+		if (full != null) {
+			full.timeout.cancel();
+			dispatch(full, Trigger.SIZE);
+		}
+
+		// 同じキーの呼び出し元同士で取り消しが波及しないよう、from で包む
+		return builder.from(future);
+	}
+
+	public void flush() {
+
+		Batch<K, V> batch;
+		synchronized (lock) {
+			batch = current;
+			this.current = null;
+		}
+
+		if (batch != null) {
+			batch.timeout.cancel();
+			dispatch(batch, Trigger.MANUAL);
+		}
+	}
+
+	public Stats stats() {
+		return new Stats(batchCount.sum(), requestCount.sum(), keyCount.sum(), failureCount.sum());
+	}
+
+	private void flush(Batch<K, V> batch, Trigger trigger) {
+
+		synchronized (lock) {
+			if (current != batch) {
+				return;
+			}
+			this.current = null;
+		}
+
+		dispatch(batch, trigger);
+	}
+
+	private void dispatch(Batch<K, V> batch, Trigger trigger) {
+
+		Runnable task = () -> execute(batch, trigger);
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	private void execute(Batch<K, V> batch, Trigger trigger) {
+
+		List<K> keys = new ArrayList<>(batch.waiters.keySet());
+		long start = System.nanoTime();
+
+		Map<? extends K, ? extends V> result = null;
+		Throwable failure = null;
+		try {
+			result = Objects.requireNonNull(bulkLoader.apply(keys), "bulk loader returned null");
+		} catch (Throwable e) {
+			failure = e;
+		}
+
+		long elapsed = System.nanoTime() - start;
+
+		batchCount.increment();
+		requestCount.add(batch.requestCount);
+		keyCount.add(keys.size());
+		if (failure != null) {
+			failureCount.increment();
+		}
+
+		// 呼び出し元が結果を受け取った時点でメトリクスが反映されているようにする
+		try {
+			if (listener != null) {
+				listener.accept(new BatchMetrics(trigger, keys.size(), batch.requestCount, elapsed, failure == null));
+			}
+		} finally {
+			complete(batch, result, failure);
+		}
+	}
+
+	private void complete(Batch<K, V> batch, Map<? extends K, ? extends V> result, Throwable failure) {
+
+		for (Map.Entry<K, CompletableFuture<Option<V>>> waiter : batch.waiters.entrySet()) {
+			if (failure != null) {
+				waiter.getValue().completeExceptionally(failure);
+			} else {
+				waiter.getValue().complete(Option.of(result.get(waiter.getKey())));
+			}
+		}
+	}
+
+
+	private static final class Batch<K, V> {
+
+		private final Map<K, CompletableFuture<Option<V>>> waiters = new LinkedHashMap<>();
+		private int requestCount = 0;
+		private TimerWheel.Timeout timeout;
+
+		private CompletableFuture<Option<V>> add(K key) {
+			requestCount++;
+			return waiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+		}
+	}
+
+	public static final class BatchMetrics {
+
+		private final Trigger trigger;
+		private final int keyCount;
+		private final int requestCount;
+		private final long elapsedNanos;
+		private final boolean success;
+
+		private BatchMetrics(Trigger trigger, int keyCount, int requestCount, long elapsedNanos, boolean success) {
+			this.trigger = trigger;
+			this.keyCount = keyCount;
+			this.requestCount = requestCount;
+			this.elapsedNanos = elapsedNanos;
+			this.success = success;
+		}
+
+		public Trigger trigger() {
+			return trigger;
+		}
+
+		public int keyCount() {
+			return keyCount;
+		}
+
+		public int requestCount() {
+			return requestCount;
+		}
+
+		public long elapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public boolean isSuccess() {
+			return success;
+		}
+
+		@Override
+		public String toString() {
+			return "BatchMetrics(" +
+				"trigger=" + trigger +
+				", keyCount=" + keyCount +
+				", requestCount=" + requestCount +
+				", elapsedNanos=" + elapsedNanos +
+				", success=" + success +
+				")";
+		}
+	}
+
+	public static final class Stats {
+
+		private final long batchCount;
+		private final long requestCount;
+		private final long keyCount;
+		private final long failureCount;
+
+		private Stats(long batchCount, long requestCount, long keyCount, long failureCount) {
+			this.batchCount = batchCount;
+			this.requestCount = requestCount;
+			this.keyCount = keyCount;
+			this.failureCount = failureCount;
+		}
+
+		public long batchCount() {
+			return batchCount;
+		}
+
+		public long requestCount() {
+			return requestCount;
+		}
+
+		public long keyCount() {
+			return keyCount;
+		}
+
+		public long failureCount() {
+			return failureCount;
+		}
+
+		public double averageBatchSize() {
+			return batchCount == 0 ? 0.0 : (double) keyCount / batchCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Stats(" +
+				"batchCount=" + batchCount +
+				", requestCount=" + requestCount +
+				", keyCount=" + keyCount +
+				", failureCount=" + failureCount +
+				")";
+		}
+	}
+
+	public static class Builder<K, V> {
+
+		private final FutureBuilder futureBuilder;
+		private int maxBatchSize = 100;
+		private long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+		private TimerWheel timer = TimerWheel.shared();
+		private Executor executor = ForkJoinPool.commonPool();
+		private Consumer<? super BatchMetrics> listener = null;
+
+		private Builder(FutureBuilder futureBuilder) {
+			this.futureBuilder = futureBuilder;
+		}
+
+		public Builder<K, V> maxBatchSize(int maxBatchSize) {
+			if (maxBatchSize <= 0) {
+				throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+			}
+			this.maxBatchSize = maxBatchSize;
+			return this;
+		}
+
+		public Builder<K, V> maxDelay(long duration, TimeUnit unit) {
+			if (duration < 0) {
+				throw new IllegalArgumentException("duration must not be negative: " + duration);
+			}
+			this.maxDelayNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		public Builder<K, V> timer(TimerWheel timer) {
+			this.timer = Objects.requireNonNull(timer);
+			return this;
+		}
+
+		public Builder<K, V> dispatchExecutor(Executor executor) {
+			this.executor = Objects.requireNonNull(executor);
+			return this;
+		}
+
+		public Builder<K, V> metricsListener(Consumer<? super BatchMetrics> listener) {
+			this.listener = Objects.requireNonNull(listener);
+			return this;
+		}
+
+		public BatchLoader<K, V> build(Function<? super List<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+			return new BatchLoader<>(this, Objects.requireNonNull(bulkLoader));
+		}
+	}
+}
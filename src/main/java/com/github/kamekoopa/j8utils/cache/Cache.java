@@ -0,0 +1,783 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.Option;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+public class Cache<K, V> {
+
+	private static final double PERCENT_WINDOW = 0.01;
+	private static final double PERCENT_MAIN_PROTECTED = 0.8;
+
+	private static final int NONE = 0;
+	private static final int WINDOW = 1;
+	private static final int PROBATION = 2;
+	private static final int PROTECTED = 3;
+	private static final int DEAD = -1;
+
+	private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+	private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+	private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final long maximum;
+	private final boolean weighted;
+	private final ToIntBiFunction<? super K, ? super V> weigher;
+	private final long expireAfterWriteNanos;
+	private final long expireAfterAccessNanos;
+	private final LongSupplier ticker;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder loadSuccessCount = new LongAdder();
+	private final LongAdder loadFailureCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	// 以下は evictionLock の下でのみ触る
+	private final FrequencySketch<K> sketch = new FrequencySketch<>();
+	private final LinkedDeque<K, V> window = LinkedDeque.accessOrder();
+	private final LinkedDeque<K, V> probation = LinkedDeque.accessOrder();
+	private final LinkedDeque<K, V> protectedDeque = LinkedDeque.accessOrder();
+	private final LinkedDeque<K, V> writeOrder = LinkedDeque.writeOrder();
+	private final long windowMaximum;
+	private final long protectedMaximum;
+	private long weightedSize = 0;
+	private long windowWeightedSize = 0;
+	private long protectedWeightedSize = 0;
+
+	private Cache(Builder<K, V> builder) {
+		this.maximum = builder.maximum;
+		this.weighted = builder.weighted;
+		this.weigher = builder.weigher;
+		this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+		this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+		this.ticker = builder.ticker;
+
+		this.windowMaximum = Math.max(1L, (long) (maximum * PERCENT_WINDOW));
+		this.protectedMaximum = (long) ((maximum - windowMaximum) * PERCENT_MAIN_PROTECTED);
+	}
+
+	public static <K, V> Builder<K, V> builder() {
+		return new Builder<>();
+	}
+
+	public Option<V> get(K key) {
+
+		Node<K, V> node = data.get(key);
+		if (node == null) {
+			missCount.increment();
+			return Option.none();
+		}
+
+		long now = now();
+		if (isExpired(node, now)) {
+			missCount.increment();
+			removeIfExpired(node, now);
+			return Option.none();
+		}
+
+		V value = node.value;
+		afterRead(node, now);
+		hitCount.increment();
+
+		return Option.of(value);
+	}
+
+	Option<V> getQuietly(K key) {
+		Node<K, V> node = data.get(key);
+		return (node == null || isExpired(node, now())) ? Option.none() : Option.of(node.value);
+	}
+
+	@SuppressWarnings("unchecked")
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+
+		Node<K, V> node = data.get(key);
+		if (node != null) {
+			long now = now();
+			if (!isExpired(node, now)) {
+				V value = node.value;
+				afterRead(node, now);
+				hitCount.increment();
+				return value;
+			}
+		}
+
+		Object[] result = new Object[1];
+		Runnable[] task = new Runnable[1];
+		Node<K, V> computed = data.compute(key, (k, prior) -> {
+
+			if (prior != null && !isExpired(prior, now())) {
+				result[0] = prior.value;
+				return prior;
+			}
+
+			V value;
+			try {
+				value = loader.apply(k);
+			} catch (RuntimeException | Error e) {
+				loadFailureCount.increment();
+				throw e;
+			}
+
+			if (value == null) {
+				loadFailureCount.increment();
+				if (prior != null) {
+					task[0] = new RemovalTask(prior);
+				}
+				return null;
+			}
+
+			loadSuccessCount.increment();
+			result[0] = value;
+
+			return write(k, prior, value, task);
+		});
+
+		if (task[0] == null && computed != null) {
+			afterRead(computed, now());
+			hitCount.increment();
+		} else {
+			missCount.increment();
+			if (task[0] != null) {
+				afterWrite(task[0]);
+			}
+		}
+
+		return (V) result[0];
+	}
+
+	public void put(K key, V value) {
+
+		Objects.requireNonNull(value);
+
+		Runnable[] task = new Runnable[1];
+		data.compute(key, (k, prior) -> write(k, prior, value, task));
+		afterWrite(task[0]);
+	}
+
+	public void invalidate(K key) {
+
+		Node<K, V> removed = data.remove(key);
+		if (removed != null) {
+			afterWrite(new RemovalTask(removed));
+		}
+	}
+
+	public boolean invalidate(K key, V expected) {
+
+		@SuppressWarnings("unchecked")
+		Node<K, V>[] removed = (Node<K, V>[]) new Node<?, ?>[1];
+		data.computeIfPresent(key, (k, current) -> {
+			if (Objects.equals(current.value, expected)) {
+				removed[0] = current;
+				return null;
+			}
+			return current;
+		});
+
+		if (removed[0] != null) {
+			afterWrite(new RemovalTask(removed[0]));
+		}
+
+		return removed[0] != null;
+	}
+
+	public boolean replace(K key, V expected, V value) {
+
+		Objects.requireNonNull(value);
+
+		Runnable[] task = new Runnable[1];
+		data.computeIfPresent(key, (k, current) -> {
+			if (Objects.equals(current.value, expected)) {
+				return write(k, current, value, task);
+			}
+			return current;
+		});
+
+		if (task[0] != null) {
+			afterWrite(task[0]);
+		}
+
+		return task[0] != null;
+	}
+
+	public void invalidateAll() {
+		data.keySet().forEach(this::invalidate);
+	}
+
+	public long estimatedSize() {
+		return data.mappingCount();
+	}
+
+	long weightedSize() {
+		evictionLock.lock();
+		try {
+			return weightedSize;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public CacheStats stats() {
+		return new CacheStats(
+			hitCount.sum(),
+			missCount.sum(),
+			loadSuccessCount.sum(),
+			loadFailureCount.sum(),
+			evictionCount.sum()
+		);
+	}
+
+	public void cleanUp() {
+		evictionLock.lock();
+		try {
+			maintenance();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private Node<K, V> write(K key, Node<K, V> prior, V value, Runnable[] task) {
+
+		long now = now();
+		int weight = weigher.applyAsInt(key, value);
+
+		if (prior == null) {
+			Node<K, V> node = new Node<>(key, value, weight, now);
+			task[0] = new AddTask(node);
+			return node;
+		}
+
+		prior.value = value;
+		prior.weight = weight;
+		prior.writeTime = now;
+		prior.accessTime = now;
+		task[0] = new UpdateTask(prior);
+
+		return prior;
+	}
+
+	private long now() {
+		return (expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0) ? ticker.getAsLong() : 0L;
+	}
+
+	private boolean isExpired(Node<K, V> node, long now) {
+		return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+			|| (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+	}
+
+	private boolean removeIfExpired(Node<K, V> node, long now) {
+
+		boolean[] removed = new boolean[1];
+		data.computeIfPresent(node.key, (k, current) -> {
+			if (current == node && isExpired(current, now)) {
+				removed[0] = true;
+				return null;
+			}
+			return current;
+		});
+
+		if (removed[0]) {
+			evictionCount.increment();
+			afterWrite(new RemovalTask(node));
+		}
+
+		return removed[0];
+	}
+
+	private void afterRead(Node<K, V> node, long now) {
+
+		if (expireAfterAccessNanos > 0) {
+			node.accessTime = now;
+		}
+
+		if (readBuffer.offer(node)) {
+			scheduleDrain();
+		}
+	}
+
+	private void afterWrite(Runnable task) {
+		writeBuffer.add(task);
+		scheduleDrain();
+	}
+
+	private void scheduleDrain() {
+		do {
+			if (!evictionLock.tryLock()) {
+				return;
+			}
+			try {
+				maintenance();
+			} finally {
+				evictionLock.unlock();
+			}
+		} while (!writeBuffer.isEmpty());
+	}
+
+	private void maintenance() {
+
+		readBuffer.drainTo(this::onAccess);
+
+		Runnable task;
+		while ((task = writeBuffer.poll()) != null) {
+			task.run();
+		}
+
+		if (weightedSize >= (maximum >>> 1)) {
+			sketch.ensureCapacity(weighted ? data.mappingCount() : maximum);
+		}
+
+		expireEntries(now());
+		evictEntries();
+	}
+
+	private void onAccess(Node<K, V> node) {
+
+		switch (node.queueType) {
+			case WINDOW:
+				sketch.increment(node.key);
+				window.moveToLast(node);
+				break;
+			case PROBATION:
+				sketch.increment(node.key);
+				probation.unlink(node);
+				node.queueType = PROTECTED;
+				protectedDeque.addLast(node);
+				protectedWeightedSize += node.policyWeight;
+				demoteFromProtected();
+				break;
+			case PROTECTED:
+				sketch.increment(node.key);
+				protectedDeque.moveToLast(node);
+				break;
+			default:
+				// 既に追い出されたか、まだ追加処理されていない
+				break;
+		}
+	}
+
+	private void demoteFromProtected() {
+		while (protectedWeightedSize > protectedMaximum) {
+			Node<K, V> demoted = protectedDeque.peekFirst();
+			if (demoted == null) {
+				break;
+			}
+			protectedDeque.unlink(demoted);
+			protectedWeightedSize -= demoted.policyWeight;
+			demoted.queueType = PROBATION;
+			probation.addLast(demoted);
+		}
+	}
+
+	private void expireEntries(long now) {
+
+		if (expireAfterAccessNanos > 0) {
+			expireAfterAccess(window, now);
+			expireAfterAccess(probation, now);
+			expireAfterAccess(protectedDeque, now);
+		}
+
+		if (expireAfterWriteNanos > 0) {
+			Node<K, V> node;
+			while ((node = writeOrder.peekFirst()) != null
+				&& now - node.writeTime >= expireAfterWriteNanos
+				&& expire(node, now)) {
+				// 期限切れのものを先頭から取り除き続ける
+			}
+		}
+	}
+
+	private void expireAfterAccess(LinkedDeque<K, V> deque, long now) {
+		Node<K, V> node;
+		while ((node = deque.peekFirst()) != null
+			&& now - node.accessTime >= expireAfterAccessNanos
+			&& expire(node, now)) {
+			// 期限切れのものを先頭から取り除き続ける
+		}
+	}
+
+	private boolean expire(Node<K, V> node, long now) {
+
+		boolean[] removed = new boolean[1];
+		data.computeIfPresent(node.key, (k, current) -> {
+			if (current == node && isExpired(current, now)) {
+				removed[0] = true;
+				return null;
+			}
+			return current;
+		});
+
+		if (removed[0]) {
+			evictionCount.increment();
+		} else if (data.get(node.key) == node) {
+			// 書き込みで期限が延長された
+			return false;
+		}
+
+		unlinkFromPolicy(node);
+		return true;
+	}
+
+	private void evictEntries() {
+
+		while (windowWeightedSize > windowMaximum) {
+			Node<K, V> node = window.peekFirst();
+			if (node == null) {
+				break;
+			}
+			window.unlink(node);
+			windowWeightedSize -= node.policyWeight;
+			node.queueType = PROBATION;
+			probation.addLast(node);
+		}
+
+		while (weightedSize > maximum) {
+
+			Node<K, V> victim = probation.peekFirst();
+			Node<K, V> candidate = probation.peekLast();
+
+			Node<K, V> evicted;
+			if (victim == null) {
+				evicted = protectedDeque.peekFirst() != null ? protectedDeque.peekFirst() : window.peekFirst();
+				if (evicted == null) {
+					break;
+				}
+			} else if (victim == candidate) {
+				evicted = victim;
+			} else {
+				evicted = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+			}
+
+			evict(evicted);
+		}
+	}
+
+	private void evict(Node<K, V> node) {
+
+		boolean[] removed = new boolean[1];
+		data.computeIfPresent(node.key, (k, current) -> {
+			if (current == node) {
+				removed[0] = true;
+				return null;
+			}
+			return current;
+		});
+
+		if (removed[0]) {
+			evictionCount.increment();
+		}
+
+		unlinkFromPolicy(node);
+	}
+
+	private void unlinkFromPolicy(Node<K, V> node) {
+
+		switch (node.queueType) {
+			case WINDOW:
+				window.unlink(node);
+				windowWeightedSize -= node.policyWeight;
+				break;
+			case PROBATION:
+				probation.unlink(node);
+				break;
+			case PROTECTED:
+				protectedDeque.unlink(node);
+				protectedWeightedSize -= node.policyWeight;
+				break;
+			case NONE:
+				// AddTask より先に削除された。後から来る AddTask に追加させない
+				node.queueType = DEAD;
+				return;
+			default:
+				return;
+		}
+
+		if (expireAfterWriteNanos > 0) {
+			writeOrder.unlink(node);
+		}
+
+		weightedSize -= node.policyWeight;
+		node.queueType = DEAD;
+	}
+
+	private class AddTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		AddTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+
+			if (node.queueType != NONE) {
+				return;
+			}
+			if (data.get(node.key) != node) {
+				node.queueType = DEAD;
+				return;
+			}
+
+			int weight = node.weight;
+			node.policyWeight = weight;
+			weightedSize += weight;
+			windowWeightedSize += weight;
+
+			node.queueType = WINDOW;
+			window.addLast(node);
+			if (expireAfterWriteNanos > 0) {
+				writeOrder.addLast(node);
+			}
+
+			sketch.increment(node.key);
+		}
+	}
+
+	private class UpdateTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		UpdateTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+
+			if (node.queueType == NONE || node.queueType == DEAD) {
+				return;
+			}
+
+			int weight = node.weight;
+			int delta = weight - node.policyWeight;
+			node.policyWeight = weight;
+			weightedSize += delta;
+			if (node.queueType == WINDOW) {
+				windowWeightedSize += delta;
+			} else if (node.queueType == PROTECTED) {
+				protectedWeightedSize += delta;
+			}
+
+			if (expireAfterWriteNanos > 0) {
+				writeOrder.moveToLast(node);
+			}
+
+			onAccess(node);
+		}
+	}
+
+	private class RemovalTask implements Runnable {
+
+		private final Node<K, V> node;
+
+		RemovalTask(Node<K, V> node) {
+			this.node = node;
+		}
+
+		@Override
+		public void run() {
+			unlinkFromPolicy(node);
+		}
+	}
+
+	private static final class Node<K, V> {
+
+		final K key;
+		volatile V value;
+		volatile int weight;
+		volatile long writeTime;
+		volatile long accessTime;
+
+		// 以下は evictionLock の下でのみ触る
+		int policyWeight = 0;
+		int queueType = NONE;
+		Node<K, V> prevAccess;
+		Node<K, V> nextAccess;
+		Node<K, V> prevWrite;
+		Node<K, V> nextWrite;
+
+		Node(K key, V value, int weight, long now) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+	private static abstract class LinkedDeque<K, V> {
+
+		private Node<K, V> first;
+		private Node<K, V> last;
+
+		abstract Node<K, V> prev(Node<K, V> node);
+		abstract Node<K, V> next(Node<K, V> node);
+		abstract void setPrev(Node<K, V> node, Node<K, V> prev);
+		abstract void setNext(Node<K, V> node, Node<K, V> next);
+
+		static <K, V> LinkedDeque<K, V> accessOrder() {
+			return new LinkedDeque<K, V>() {
+				@Override Node<K, V> prev(Node<K, V> node) { return node.prevAccess; }
+				@Override Node<K, V> next(Node<K, V> node) { return node.nextAccess; }
+				@Override void setPrev(Node<K, V> node, Node<K, V> prev) { node.prevAccess = prev; }
+				@Override void setNext(Node<K, V> node, Node<K, V> next) { node.nextAccess = next; }
+			};
+		}
+
+		static <K, V> LinkedDeque<K, V> writeOrder() {
+			return new LinkedDeque<K, V>() {
+				@Override Node<K, V> prev(Node<K, V> node) { return node.prevWrite; }
+				@Override Node<K, V> next(Node<K, V> node) { return node.nextWrite; }
+				@Override void setPrev(Node<K, V> node, Node<K, V> prev) { node.prevWrite = prev; }
+				@Override void setNext(Node<K, V> node, Node<K, V> next) { node.nextWrite = next; }
+			};
+		}
+
+		Node<K, V> peekFirst() {
+			return first;
+		}
+
+		Node<K, V> peekLast() {
+			return last;
+		}
+
+		boolean contains(Node<K, V> node) {
+			return prev(node) != null || next(node) != null || first == node;
+		}
+
+		void addLast(Node<K, V> node) {
+			setPrev(node, last);
+			setNext(node, null);
+			if (last == null) {
+				first = node;
+			} else {
+				setNext(last, node);
+			}
+			last = node;
+		}
+
+		void unlink(Node<K, V> node) {
+
+			if (!contains(node)) {
+				return;
+			}
+
+			Node<K, V> prev = prev(node);
+			Node<K, V> next = next(node);
+
+			if (prev == null) {
+				first = next;
+			} else {
+				setNext(prev, next);
+			}
+
+			if (next == null) {
+				last = prev;
+			} else {
+				setPrev(next, prev);
+			}
+
+			setPrev(node, null);
+			setNext(node, null);
+		}
+
+		void moveToLast(Node<K, V> node) {
+			if (node != last) {
+				unlink(node);
+				addLast(node);
+			}
+		}
+	}
+
+	public static class Builder<K, V> {
+
+		private long maximum = Long.MAX_VALUE;
+		private boolean weighted = false;
+		private ToIntBiFunction<? super K, ? super V> weigher = (k, v) -> 1;
+		private long expireAfterWriteNanos = 0;
+		private long expireAfterAccessNanos = 0;
+		private LongSupplier ticker = System::nanoTime;
+
+		private Builder() {
+		}
+
+		public Builder<K, V> maximumSize(long maximumSize) {
+			if (maximumSize < 0) {
+				throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+			}
+			this.maximum = maximumSize;
+			this.weighted = false;
+			this.weigher = (k, v) -> 1;
+			return this;
+		}
+
+		public Builder<K, V> maximumWeight(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+			if (maximumWeight < 0) {
+				throw new IllegalArgumentException("maximumWeight must not be negative: " + maximumWeight);
+			}
+			Objects.requireNonNull(weigher);
+			this.maximum = maximumWeight;
+			this.weighted = true;
+			this.weigher = (k, v) -> {
+				int weight = weigher.applyAsInt(k, v);
+				if (weight < 0) {
+					throw new IllegalArgumentException("weight must not be negative: " + weight);
+				}
+				return weight;
+			};
+			return this;
+		}
+
+		public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+			this.expireAfterWriteNanos = toPositiveNanos(duration, unit);
+			return this;
+		}
+
+		public Builder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+			this.expireAfterAccessNanos = toPositiveNanos(duration, unit);
+			return this;
+		}
+
+		public Builder<K, V> ticker(LongSupplier ticker) {
+			this.ticker = Objects.requireNonNull(ticker);
+			return this;
+		}
+
+		public Cache<K, V> build() {
+			return new Cache<>(this);
+		}
+
+		private static long toPositiveNanos(long duration, TimeUnit unit) {
+			if (duration <= 0) {
+				throw new IllegalArgumentException("duration must be positive: " + duration);
+			}
+			return unit.toNanos(duration);
+		}
+	}
+}
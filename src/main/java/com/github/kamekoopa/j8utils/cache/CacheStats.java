@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+public final class CacheStats {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long loadSuccessCount;
+	private final long loadFailureCount;
+	private final long evictionCount;
+
+	CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long evictionCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.loadSuccessCount = loadSuccessCount;
+		this.loadFailureCount = loadFailureCount;
+		this.evictionCount = evictionCount;
+	}
+
+	public long hitCount() {
+		return hitCount;
+	}
+
+	public long missCount() {
+		return missCount;
+	}
+
+	public long requestCount() {
+		return hitCount + missCount;
+	}
+
+	public double hitRate() {
+		long requestCount = requestCount();
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	public long loadSuccessCount() {
+		return loadSuccessCount;
+	}
+
+	public long loadFailureCount() {
+		return loadFailureCount;
+	}
+
+	public long evictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		CacheStats that = (CacheStats) o;
+
+		return hitCount == that.hitCount
+			&& missCount == that.missCount
+			&& loadSuccessCount == that.loadSuccessCount
+			&& loadFailureCount == that.loadFailureCount
+			&& evictionCount == that.evictionCount;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Long.hashCode(hitCount);
+		result = 31 * result + Long.hashCode(missCount);
+		result = 31 * result + Long.hashCode(loadSuccessCount);
+		result = 31 * result + Long.hashCode(loadFailureCount);
+		result = 31 * result + Long.hashCode(evictionCount);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats(" +
+			"hitCount=" + hitCount +
+			", missCount=" + missCount +
+			", loadSuccessCount=" + loadSuccessCount +
+			", loadFailureCount=" + loadFailureCount +
+			", evictionCount=" + evictionCount +
+			")";
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+class FrequencySketch<E> {
+
+	private static final long[] SEED = {
+		0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+	};
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final long ONE_MASK = 0x1111111111111111L;
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	private long[] table = new long[0];
+	private int tableMask;
+	private int sampleSize;
+	private int size;
+
+	public void ensureCapacity(long maximumSize) {
+
+		int capacity = (int) Math.min(Math.max(maximumSize, 16L), MAXIMUM_CAPACITY);
+		if (table.length >= capacity) {
+			return;
+		}
+
+		this.table = new long[ceilingPowerOfTwo(capacity)];
+		this.tableMask = table.length - 1;
+		this.sampleSize = 10 * capacity;
+		this.size = 0;
+	}
+
+	public int frequency(E e) {
+
+		if (table.length == 0) {
+			return 0;
+		}
+
+		int hash = spread(e.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	public void increment(E e) {
+
+		if (table.length == 0) {
+			return;
+		}
+
+		int hash = spread(e.hashCode());
+		int start = (hash & 3) << 2;
+
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+
+		if (added && ++size == sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int i, int j) {
+
+		int offset = j << 2;
+		long mask = 0xfL << offset;
+		if ((table[i] & mask) != mask) {
+			table[i] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	private void reset() {
+
+		int count = 0;
+		for (int i = 0; i < table.length; i++) {
+			count += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		this.size = (size >>> 1) - (count >>> 2);
+	}
+
+	private int indexOf(int item, int i) {
+		long hash = (item + SEED[i]) * SEED[i];
+		hash += hash >>> 32;
+		return ((int) hash) & tableMask;
+	}
+
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+
+	private static int ceilingPowerOfTwo(int x) {
+		return 1 << -Integer.numberOfLeadingZeros(x - 1);
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.Option;
+import com.github.kamekoopa.j8utils.utils.FE1;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public final class Memoizer {
+
+	private static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+
+	private final long maximumSize;
+	private final long expireAfterWriteNanos;
+	private final long failureExpireAfterWriteNanos;
+	private final LongSupplier ticker;
+
+	private Memoizer(long maximumSize, long expireAfterWriteNanos, long failureExpireAfterWriteNanos, LongSupplier ticker) {
+		this.maximumSize = maximumSize;
+		this.expireAfterWriteNanos = expireAfterWriteNanos;
+		this.failureExpireAfterWriteNanos = failureExpireAfterWriteNanos;
+		this.ticker = ticker;
+	}
+
+	public static Memoizer defaults() {
+		return new Memoizer(DEFAULT_MAXIMUM_SIZE, 0, 0, System::nanoTime);
+	}
+
+	public Memoizer maximumSize(long maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+		}
+		return new Memoizer(maximumSize, expireAfterWriteNanos, failureExpireAfterWriteNanos, ticker);
+	}
+
+	public Memoizer expireAfterWrite(long duration, TimeUnit unit) {
+		return new Memoizer(maximumSize, toPositiveNanos(duration, unit), failureExpireAfterWriteNanos, ticker);
+	}
+
+	public Memoizer cacheFailuresFor(long duration, TimeUnit unit) {
+		return new Memoizer(maximumSize, expireAfterWriteNanos, toPositiveNanos(duration, unit), ticker);
+	}
+
+	public Memoizer ticker(LongSupplier ticker) {
+		return new Memoizer(maximumSize, expireAfterWriteNanos, failureExpireAfterWriteNanos, Objects.requireNonNull(ticker));
+	}
+
+	public <K, X> Function<K, X> memoize(Function<? super K, ? extends X> f) {
+
+		Objects.requireNonNull(f);
+		Loader<K, X> loader = new Loader<>(newCache(expireAfterWriteNanos));
+
+		return key -> {
+
+			if (key == null) {
+				return f.apply(null);
+			}
+
+			try {
+				return loader.load(key, f::apply);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		};
+	}
+
+	public <K, X> FE1<K, X> memoizee(FE1<? super K, ? extends X> f) {
+
+		Objects.requireNonNull(f);
+		Loader<K, X> loader = new Loader<>(newCache(expireAfterWriteNanos));
+		Option<Cache<K, Exception>> failures = failureExpireAfterWriteNanos > 0
+			? Option.of(newCache(failureExpireAfterWriteNanos))
+			: Option.none();
+
+		return key -> {
+
+			if (key == null) {
+				return f.apply(null);
+			}
+
+			return loader.load(key, k -> {
+
+				Option<Exception> failed = failures.flatMap(c -> c.getQuietly(k));
+				if (failed.isSome()) {
+					throw failed.getOrElse(() -> null);
+				}
+
+				try {
+					return f.apply(k);
+				} catch (Exception e) {
+					failures.peek(() -> {}, c -> c.put(k, e));
+					throw e;
+				}
+			});
+		};
+	}
+
+	private <K, V> Cache<K, V> newCache(long expireAfterNanos) {
+
+		Cache.Builder<K, V> builder = Cache.<K, V>builder()
+			.maximumSize(maximumSize)
+			.ticker(ticker);
+
+		if (expireAfterNanos > 0) {
+			builder.expireAfterWrite(expireAfterNanos, TimeUnit.NANOSECONDS);
+		}
+
+		return builder.build();
+	}
+
+	private static long toPositiveNanos(long duration, TimeUnit unit) {
+		if (duration <= 0) {
+			throw new IllegalArgumentException("duration must be positive: " + duration);
+		}
+		return unit.toNanos(duration);
+	}
+
+	// 関数は Cache のロック外で実行する。再帰的なメモ化関数が同じ Cache に戻ってきても詰まらない
+	private static final class Loader<K, X> {
+
+		private final Cache<K, X> values;
+		private final ConcurrentHashMap<K, InFlight<X>> inFlight = new ConcurrentHashMap<>();
+
+		private Loader(Cache<K, X> values) {
+			this.values = values;
+		}
+
+		private X load(K key, FE1<? super K, ? extends X> f) throws Exception {
+
+			Option<X> cached = values.get(key);
+			if (cached.isSome()) {
+				return cached.getOrElse(() -> null);
+			}
+
+			InFlight<X> mine = new InFlight<>();
+			InFlight<X> existing = inFlight.putIfAbsent(key, mine);
+			if (existing != null) {
+				if (existing.owner == Thread.currentThread()) {
+					throw new IllegalStateException("recursive load of the same key: " + key);
+				}
+				return existing.await();
+			}
+
+			try {
+				// 先行したロードが inFlight から外れる直前に結果を格納していた場合
+				Option<X> raced = values.getQuietly(key);
+				X value = raced.isSome() ? raced.getOrElse(() -> null) : f.apply(key);
+				if (value != null && raced.isNone()) {
+					values.put(key, value);
+				}
+				mine.future.complete(value);
+				return value;
+			} catch (Exception | Error e) {
+				mine.future.completeExceptionally(e);
+				throw e;
+			} finally {
+				inFlight.remove(key, mine);
+			}
+		}
+	}
+
+	private static final class InFlight<X> {
+
+		private final Thread owner = Thread.currentThread();
+		private final CompletableFuture<X> future = new CompletableFuture<>();
+
+		private X await() throws Exception {
+			try {
+				return future.join();
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Exception) {
+					throw (Exception) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw e;
+			}
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.Option;
+import com.github.kamekoopa.j8utils.utils.FE1;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class OptionLoadingCache<K, V> {
+
+	private final Cache<K, V> positive;
+	private final Cache<K, Boolean> negative;
+	private final FE1<? super K, ? extends Option<? extends V>> loader;
+
+	private final ConcurrentHashMap<K, CompletableFuture<Option<V>>> inFlight = new ConcurrentHashMap<>();
+
+	private OptionLoadingCache(
+		Cache<K, V> positive,
+		Cache<K, Boolean> negative,
+		FE1<? super K, ? extends Option<? extends V>> loader
+	) {
+		this.positive = positive;
+		this.negative = negative;
+		this.loader = loader;
+	}
+
+	public static <K, V> Builder<K, V> builder() {
+		return new Builder<>();
+	}
+
+	public Option<V> get(K key) {
+
+		try {
+			return gete(key);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public Option<V> gete(K key) throws Exception {
+
+		Option<Option<V>> cached = getIfPresent(key);
+		if (cached.isSome()) {
+			return cached.unsafeGet();
+		}
+
+		CompletableFuture<Option<V>> loading = new CompletableFuture<>();
+		CompletableFuture<Option<V>> existing = inFlight.putIfAbsent(key, loading);
+		if (existing != null) {
+			return await(existing);
+		}
+
+		try {
+			// 直前に他のスレッドがロードを終えていたらその結果を使う
+			Option<V> result = positive.getQuietly(key);
+			if (result.isNone() && negative.getQuietly(key).isNone()) {
+				result = load(key);
+			}
+			loading.complete(result);
+			return result;
+		} catch (Exception | Error e) {
+			loading.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, loading);
+		}
+	}
+
+	public Option<Option<V>> getIfPresent(K key) {
+
+		// 既知の不在を正のキャッシュのミスとして数えないよう、統計を取らずに先に確かめる
+		if (negative.getQuietly(key).isNone()) {
+			Option<V> value = positive.get(key);
+			if (value.isSome()) {
+				return Option.of(value);
+			}
+		}
+
+		if (negative.get(key).isSome()) {
+			return Option.of(Option.none());
+		}
+
+		return Option.none();
+	}
+
+	public void invalidate(K key) {
+		positive.invalidate(key);
+		negative.invalidate(key);
+	}
+
+	public void invalidateAll() {
+		positive.invalidateAll();
+		negative.invalidateAll();
+	}
+
+	public CacheStats stats() {
+		return positive.stats();
+	}
+
+	public CacheStats negativeStats() {
+		return negative.stats();
+	}
+
+	public void cleanUp() {
+		positive.cleanUp();
+		negative.cleanUp();
+	}
+
+	private Option<V> load(K key) throws Exception {
+
+		Option<? extends V> loaded = Objects.requireNonNull(loader.apply(key));
+
+		if (loaded.isSome()) {
+			V value = loaded.unsafeGet();
+			negative.invalidate(key);
+			positive.put(key, value);
+			return Option.of(value);
+		} else {
+			positive.invalidate(key);
+			negative.put(key, Boolean.TRUE);
+			return Option.none();
+		}
+	}
+
+	private static <A> A await(CompletableFuture<A> future) throws Exception {
+
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	public static class Builder<K, V> {
+
+		private final Cache.Builder<K, V> positive = Cache.builder();
+		private final Cache.Builder<K, Boolean> negative = Cache.builder();
+
+		private Builder() {
+		}
+
+		public Builder<K, V> maximumSize(long maximumSize) {
+			positive.maximumSize(maximumSize);
+			return this;
+		}
+
+		public Builder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+			positive.expireAfterWrite(duration, unit);
+			return this;
+		}
+
+		public Builder<K, V> negativeMaximumSize(long maximumSize) {
+			negative.maximumSize(maximumSize);
+			return this;
+		}
+
+		public Builder<K, V> negativeExpireAfterWrite(long duration, TimeUnit unit) {
+			negative.expireAfterWrite(duration, unit);
+			return this;
+		}
+
+		public Builder<K, V> ticker(LongSupplier ticker) {
+			positive.ticker(ticker);
+			negative.ticker(ticker);
+			return this;
+		}
+
+		public OptionLoadingCache<K, V> build(FE1<? super K, ? extends Option<? extends V>> loader) {
+			Objects.requireNonNull(loader);
+			return new OptionLoadingCache<>(positive.build(), negative.build(), loader);
+		}
+	}
+}
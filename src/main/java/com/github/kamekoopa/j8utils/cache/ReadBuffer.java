@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+class ReadBuffer<E> {
+
+	private static final int BUFFER_SIZE = 16;
+	private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+
+	private final Stripe<E>[] stripes;
+	private final int stripeMask;
+
+	public ReadBuffer() {
+
+		int ncpu = Runtime.getRuntime().availableProcessors();
+		int count = Integer.highestOneBit(Math.min(Math.max(ncpu * 2, 1), 64));
+
+		@SuppressWarnings("unchecked")
+		Stripe<E>[] stripes = (Stripe<E>[]) new Stripe<?>[count];
+		this.stripes = stripes;
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe<>();
+		}
+		this.stripeMask = count - 1;
+	}
+
+	public boolean offer(E e) {
+
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+		Stripe<E> stripe = stripes[(hash >>> 16) & stripeMask];
+
+		return stripe.offer(e);
+	}
+
+	public void drainTo(Consumer<? super E> consumer) {
+		for (Stripe<E> stripe : stripes) {
+			stripe.drainTo(consumer);
+		}
+	}
+
+	private static class Stripe<E> {
+
+		private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+		private final AtomicLong writeCounter = new AtomicLong();
+		private volatile long readCounter = 0;
+
+		boolean offer(E e) {
+
+			long head = readCounter;
+			long tail = writeCounter.get();
+			long size = tail - head;
+			if (size >= BUFFER_SIZE) {
+				return true;
+			}
+
+			if (writeCounter.compareAndSet(tail, tail + 1)) {
+				buffer.lazySet((int) (tail & BUFFER_MASK), e);
+				return size + 1 >= BUFFER_SIZE;
+			}
+
+			return false;
+		}
+
+		void drainTo(Consumer<? super E> consumer) {
+
+			long head = readCounter;
+			long tail = writeCounter.get();
+			for (; head < tail; head++) {
+				int index = (int) (head & BUFFER_MASK);
+				E e = buffer.get(index);
+				if (e == null) {
+					break;
+				}
+				buffer.lazySet(index, null);
+				consumer.accept(e);
+			}
+			this.readCounter = head;
+		}
+	}
+}
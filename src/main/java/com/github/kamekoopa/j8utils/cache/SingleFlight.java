@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, A> {
+
+	private final FutureBuilder builder;
+	private final Option<Cache<K, A>> resultCache;
+
+	private final ConcurrentHashMap<K, CompletableFuture<A>> inFlight = new ConcurrentHashMap<>();
+
+	private SingleFlight(FutureBuilder builder, Option<Cache<K, A>> resultCache) {
+		this.builder = builder;
+		this.resultCache = resultCache;
+	}
+
+	public static <K, A> SingleFlight<K, A> create(FutureBuilder builder) {
+		return new SingleFlight<>(Objects.requireNonNull(builder), Option.none());
+	}
+
+	public static <K, A> SingleFlight<K, A> create(FutureBuilder builder, long maximumSize, long ttl, TimeUnit unit) {
+		return create(builder, maximumSize, ttl, unit, System::nanoTime);
+	}
+
+	public static <K, A> SingleFlight<K, A> create(FutureBuilder builder, long maximumSize, long ttl, TimeUnit unit, LongSupplier ticker) {
+
+		Cache<K, A> resultCache = Cache.<K, A>builder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(ttl, unit)
+			.ticker(ticker)
+			.build();
+
+		return new SingleFlight<>(Objects.requireNonNull(builder), Option.of(resultCache));
+	}
+
+	public FutureBuilder.Future<A> run(K key, Supplier<? extends A> supplier) {
+
+		Option<A> cached = resultCache.flatMap(cache -> cache.get(key));
+		if (cached.isSome()) {
+			return builder.from(CompletableFuture.completedFuture(cached.getOrElse(() -> null)));
+		}
+
+		CompletableFuture<A> shared = new CompletableFuture<>();
+		CompletableFuture<A> existing = inFlight.putIfAbsent(key, shared);
+		if (existing != null) {
+			return builder.from(existing);
+		}
+
+		// 完了したロードが inFlight から外れる直前に結果を格納していた場合
+		Option<A> raced = resultCache.flatMap(cache -> cache.getQuietly(key));
+		if (raced.isSome()) {
+			inFlight.remove(key, shared);
+			shared.complete(raced.getOrElse(() -> null));
+			return builder.from(shared);
+		}
+
+		try {
+			builder.<A>run(supplier).toCompletableFuture().whenComplete((value, e) -> {
+				if (e == null && value != null) {
+					resultCache.peek(() -> {}, cache -> cache.put(key, value));
+				}
+				inFlight.remove(key, shared);
+
+				if (e != null) {
+					shared.completeExceptionally(e);
+				} else {
+					shared.complete(value);
+				}
+			});
+		} catch (RuntimeException | Error e) {
+			inFlight.remove(key, shared);
+			shared.completeExceptionally(e);
+		}
+
+		return builder.from(shared);
+	}
+
+	public int inFlightCount() {
+		return inFlight.size();
+	}
+
+	public void forget(K key) {
+		resultCache.peek(() -> {}, cache -> cache.invalidate(key));
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+
+public final class CancelToken {
+
+	private List<Runnable> hooks = null;
+	private volatile boolean cancelled = false;
+
+	public static CancelToken create() {
+		return new CancelToken();
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public void throwIfCancelled() {
+		if (cancelled) {
+			throw new CancellationException();
+		}
+	}
+
+	public CancelToken onCancel(Runnable hook) {
+
+		Objects.requireNonNull(hook);
+
+		synchronized (this) {
+			if (!cancelled) {
+				if (hooks == null) {
+					this.hooks = new ArrayList<>(2);
+				}
+				hooks.add(hook);
+				return this;
+			}
+		}
+
+		hook.run();
+		return this;
+	}
+
+	public synchronized boolean removeOnCancel(Runnable hook) {
+		return hooks != null && hooks.remove(hook);
+	}
+
+	public boolean cancel() {
+
+		List<Runnable> toRun;
+		synchronized (this) {
+			if (cancelled) {
+				return false;
+			}
+			this.cancelled = true;
+			toRun = hooks;
+			this.hooks = null;
+		}
+
+		if (toRun != null) {
+			runAll(toRun);
+		}
+		return true;
+	}
+
+	private static void runAll(List<Runnable> hooks) {
+
+		RuntimeException failure = null;
+		for (Runnable hook : hooks) {
+			try {
+				hook.run();
+			} catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
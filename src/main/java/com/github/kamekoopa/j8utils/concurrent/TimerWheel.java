@@ -0,0 +1,377 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.concurrent;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public final class TimerWheel {
+
+	private static final int WORKER_INIT = 0;
+	private static final int WORKER_STARTED = 1;
+	private static final int WORKER_SHUTDOWN = 2;
+
+	private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+	private static final class SharedHolder {
+		static final TimerWheel INSTANCE = new TimerWheel(10, TimeUnit.MILLISECONDS, 512, true);
+	}
+
+	private final long tickNanos;
+	private final Bucket[] wheel;
+	private final int mask;
+	private final boolean shared;
+
+	private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger workerState = new AtomicInteger(WORKER_INIT);
+	private final AtomicLong pendingCount = new AtomicLong();
+	private final Thread worker;
+
+	private volatile long startTime = 0;
+
+	public TimerWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+		this(tickDuration, unit, wheelSize, false);
+	}
+
+	private TimerWheel(long tickDuration, TimeUnit unit, int wheelSize, boolean shared) {
+
+		if (tickDuration <= 0) {
+			throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+		}
+		if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+			throw new IllegalArgumentException("wheelSize must be in (0, 2^30]: " + wheelSize);
+		}
+
+		this.tickNanos = unit.toNanos(tickDuration);
+		int size = Integer.highestOneBit(wheelSize - 1) << 1;
+		this.wheel = new Bucket[Math.max(size, 1)];
+		for (int i = 0; i < wheel.length; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.mask = wheel.length - 1;
+		this.shared = shared;
+
+		this.worker = new Thread(this::work, "j8utils-timer-wheel");
+		this.worker.setDaemon(true);
+	}
+
+	public static TimerWheel shared() {
+		return SharedHolder.INSTANCE;
+	}
+
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+
+		Objects.requireNonNull(task);
+		start();
+
+		long delayNanos = unit.toNanos(Math.max(delay, 0));
+		long deadline = System.nanoTime() + delayNanos - startTime;
+		if (delayNanos > 0 && deadline < 0) {
+			// 桁あふれした場合は、事実上期限切れにならない値に丸める
+			deadline = Long.MAX_VALUE;
+		}
+		Timeout timeout = new Timeout(this, task, deadline);
+
+		pendingCount.incrementAndGet();
+		pending.add(timeout);
+
+		// stop と行き違った場合、stop 側で回収されていなければ登録を取り下げる
+		if (workerState.get() == WORKER_SHUTDOWN && pending.remove(timeout)) {
+			pendingCount.decrementAndGet();
+			throw new IllegalStateException("timer wheel has been stopped");
+		}
+
+		return timeout;
+	}
+
+	public long pendingCount() {
+		return pendingCount.get();
+	}
+
+	public Set<Timeout> stop() {
+
+		if (shared) {
+			// 共有インスタンスを止めると JVM 全体のタイムアウトが動かなくなる
+			throw new IllegalStateException("the shared timer wheel cannot be stopped");
+		}
+		if (Thread.currentThread() == worker) {
+			throw new IllegalStateException("timer wheel cannot be stopped from its own task");
+		}
+
+		if (workerState.getAndSet(WORKER_SHUTDOWN) != WORKER_STARTED) {
+			return Collections.emptySet();
+		}
+
+		worker.interrupt();
+		boolean interrupted = false;
+		while (worker.isAlive()) {
+			try {
+				worker.join(100);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		// 実行されずに残ったタイムアウトを返し、持ち主が後始末できるようにする
+		Set<Timeout> unprocessed = new HashSet<>();
+		for (Bucket bucket : wheel) {
+			bucket.drainTo(unprocessed);
+		}
+		Timeout timeout;
+		while ((timeout = pending.poll()) != null) {
+			if (timeout.state.get() == Timeout.ST_INIT) {
+				unprocessed.add(timeout);
+			}
+		}
+		return Collections.unmodifiableSet(unprocessed);
+	}
+
+	private void start() {
+
+		switch (workerState.get()) {
+			case WORKER_INIT:
+				if (workerState.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+					long now = System.nanoTime();
+					this.startTime = now == 0 ? 1 : now;
+					worker.start();
+				}
+				break;
+			case WORKER_STARTED:
+				break;
+			default:
+				throw new IllegalStateException("timer wheel has been stopped");
+		}
+
+		while (startTime == 0) {
+			// worker の開始時刻が公開されるのを待つ
+			Thread.yield();
+		}
+	}
+
+	private void work() {
+
+		long tick = 0;
+		while (workerState.get() == WORKER_STARTED) {
+
+			long deadline = waitForNextTick(tick);
+			if (deadline < 0) {
+				continue;
+			}
+
+			processCancelled();
+			transferPending(tick);
+			wheel[(int) (tick & mask)].expire(deadline);
+
+			tick++;
+		}
+	}
+
+	private long waitForNextTick(long tick) {
+
+		long deadline = tickNanos * (tick + 1);
+		while (true) {
+			long current = System.nanoTime() - startTime;
+			long sleepNanos = deadline - current;
+			if (sleepNanos <= 0) {
+				return current;
+			}
+
+			LockSupport.parkNanos(this, sleepNanos);
+			if (workerState.get() != WORKER_STARTED) {
+				return -1;
+			}
+		}
+	}
+
+	private void transferPending(long tick) {
+
+		for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+			Timeout timeout = pending.poll();
+			if (timeout == null) {
+				return;
+			}
+			if (timeout.state.get() != Timeout.ST_INIT) {
+				continue;
+			}
+
+			long calculated = timeout.deadline / tickNanos;
+			timeout.remainingRounds = (calculated - tick) / wheel.length;
+
+			long ticks = Math.max(calculated, tick);
+			Bucket bucket = wheel[(int) (ticks & mask)];
+			bucket.add(timeout);
+		}
+	}
+
+	private void processCancelled() {
+		Timeout timeout;
+		while ((timeout = cancelled.poll()) != null) {
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+	}
+
+	public static final class Timeout {
+
+		private static final int ST_INIT = 0;
+		private static final int ST_CANCELLED = 1;
+		private static final int ST_EXPIRED = 2;
+
+		private final TimerWheel timer;
+		private final Runnable task;
+		private final long deadline;
+		private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+		// 以下は worker スレッドからのみ触る
+		private long remainingRounds;
+		private Bucket bucket;
+		private Timeout next;
+		private Timeout prev;
+
+		private Timeout(TimerWheel timer, Runnable task, long deadline) {
+			this.timer = timer;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		public boolean cancel() {
+
+			if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+				return false;
+			}
+
+			timer.pendingCount.decrementAndGet();
+			timer.cancelled.add(this);
+			return true;
+		}
+
+		public Runnable task() {
+			return task;
+		}
+
+		public boolean isCancelled() {
+			return state.get() == ST_CANCELLED;
+		}
+
+		public boolean isExpired() {
+			return state.get() == ST_EXPIRED;
+		}
+
+		private void expire() {
+
+			if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+				return;
+			}
+
+			timer.pendingCount.decrementAndGet();
+			try {
+				task.run();
+			} catch (Throwable t) {
+				// タイマースレッドを止めないために握りつぶす
+			}
+		}
+	}
+
+	private static final class Bucket {
+
+		private Timeout head;
+		private Timeout tail;
+
+		void add(Timeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+
+		void expire(long deadline) {
+
+			Timeout timeout = head;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				if (timeout.isCancelled()) {
+					remove(timeout);
+				} else if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+					remove(timeout);
+					timeout.expire();
+				} else if (timeout.remainingRounds > 0) {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+
+		void drainTo(Set<Timeout> unprocessed) {
+
+			Timeout timeout = head;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				remove(timeout);
+				if (timeout.state.get() == Timeout.ST_INIT) {
+					unprocessed.add(timeout);
+				}
+				timeout = next;
+			}
+		}
+
+		void remove(Timeout timeout) {
+
+			if (timeout.bucket != this) {
+				return;
+			}
+
+			Timeout next = timeout.next;
+			if (timeout.prev != null) {
+				timeout.prev.next = next;
+			}
+			if (timeout.next != null) {
+				timeout.next.prev = timeout.prev;
+			}
+
+			if (timeout == head) {
+				if (timeout == tail) {
+					head = tail = null;
+				} else {
+					head = next;
+				}
+			} else if (timeout == tail) {
+				tail = timeout.prev;
+			}
+
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+	}
+}
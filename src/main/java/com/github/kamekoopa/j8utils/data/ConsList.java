@@ -0,0 +1,313 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public abstract class ConsList<A> implements Iterable<A> {
+
+	private static final Nil<?> nil = new Nil<>();
+
+	@SuppressWarnings("unchecked")
+	public static <A> ConsList<A> nil(){
+		return (ConsList<A>) nil;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <A> ConsList<A> cons(A head, ConsList<? extends A> tail){
+		return new Cons<>(head, (ConsList<A>) tail);
+	}
+
+	@SafeVarargs
+	public static <A> ConsList<A> of(A... as){
+
+		// 可変長引数の配列を外に渡さないよう、ここで直接組み立てる
+		ConsList<A> list = nil();
+		for (int i = as.length - 1; i >= 0; i--) {
+			list = new Cons<>(as[i], list);
+		}
+		return list;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <A> ConsList<A> from(Iterable<? extends A> iterable){
+
+		if (iterable instanceof ConsList) {
+			return (ConsList<A>) iterable;
+		}
+
+		List<A> buffer = new ArrayList<>();
+		for (A a : iterable) {
+			buffer.add(a);
+		}
+		return fromArray(buffer.toArray(), buffer.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A> ConsList<A> fromArray(Object[] as, int length){
+
+		ConsList<A> list = nil();
+		for (int i = length - 1; i >= 0; i--) {
+			list = new Cons<>((A) as[i], list);
+		}
+		return list;
+	}
+
+	public abstract boolean isEmpty();
+
+	public abstract int size();
+
+	public abstract A head();
+
+	public abstract Option<A> headOption();
+
+	public abstract ConsList<A> tail();
+
+	public ConsList<A> prepend(A a){
+		return new Cons<>(a, this);
+	}
+
+	public Option<A> get(int i){
+
+		if (i < 0) {
+			return Option.none();
+		}
+
+		ConsList<A> list = this;
+		for (int j = 0; j < i && !list.isEmpty(); j++) {
+			list = list.tail();
+		}
+		return list.headOption();
+	}
+
+	public <B> ConsList<B> map(Function<? super A, ? extends B> f){
+
+		Object[] buffer = new Object[size()];
+		int i = 0;
+		for (A a : this) {
+			buffer[i++] = f.apply(a);
+		}
+		return fromArray(buffer, i);
+	}
+
+	public ConsList<A> filter(Predicate<? super A> p){
+
+		Object[] buffer = new Object[size()];
+		int i = 0;
+		for (A a : this) {
+			if (p.test(a)) {
+				buffer[i++] = a;
+			}
+		}
+		return i == size() ? this : fromArray(buffer, i);
+	}
+
+	public <B> ConsList<B> flatMap(Function<? super A, ? extends ConsList<? extends B>> f){
+
+		List<B> buffer = new ArrayList<>();
+		for (A a : this) {
+			for (B b : f.apply(a)) {
+				buffer.add(b);
+			}
+		}
+		return fromArray(buffer.toArray(), buffer.size());
+	}
+
+	public <B> B foldLeft(B zero, BiFunction<? super B, ? super A, ? extends B> f){
+
+		B acc = zero;
+		for (A a : this) {
+			acc = f.apply(acc, a);
+		}
+		return acc;
+	}
+
+	public ConsList<A> reverse(){
+
+		ConsList<A> reversed = nil();
+		for (A a : this) {
+			reversed = reversed.prepend(a);
+		}
+		return reversed;
+	}
+
+	public ConsList<A> takeWhile(Predicate<? super A> p){
+
+		Object[] buffer = new Object[size()];
+		int i = 0;
+		for (A a : this) {
+			if (p.test(a)) {
+				buffer[i++] = a;
+			} else {
+				return fromArray(buffer, i);
+			}
+		}
+		return this;
+	}
+
+	public ConsList<A> dropWhile(Predicate<? super A> p){
+
+		ConsList<A> list = this;
+		while (!list.isEmpty() && p.test(list.head())) {
+			list = list.tail();
+		}
+		return list;
+	}
+
+	public List<A> toList(){
+
+		List<A> list = new ArrayList<>(size());
+		for (A a : this) {
+			list.add(a);
+		}
+		return list;
+	}
+
+	public Stream<A> stream(){
+		return StreamSupport.stream(this.spliterator(), false);
+	}
+
+	@Override
+	public Iterator<A> iterator(){
+		return new Iterator<A>() {
+			private ConsList<A> current = ConsList.this;
+
+			@Override
+			public boolean hasNext() {
+				return !current.isEmpty();
+			}
+
+			@Override
+			public A next() {
+				A head = current.head();
+				this.current = current.tail();
+				return head;
+			}
+		};
+	}
+
+	@Override
+	public Spliterator<A> spliterator(){
+		return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof ConsList)) return false;
+
+		ConsList<?> other = (ConsList<?>) o;
+		if (size() != other.size()) return false;
+
+		Iterator<?> it = other.iterator();
+		for (A a : this) {
+			if (!Objects.equals(a, it.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (A a : this) {
+			result = 31 * result + Objects.hashCode(a);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner joiner = new StringJoiner(", ", "ConsList(", ")");
+		for (A a : this) {
+			joiner.add(String.valueOf(a));
+		}
+		return joiner.toString();
+	}
+
+
+	public static final class Cons<A> extends ConsList<A> {
+
+		private final A head;
+		private final ConsList<A> tail;
+		private final int size;
+
+		private Cons(A head, ConsList<A> tail) {
+			this.head = head;
+			this.tail = tail;
+			this.size = tail.size() + 1;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return false;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public A head() {
+			return head;
+		}
+
+		@Override
+		public Option<A> headOption() {
+			return Option.of(head);
+		}
+
+		@Override
+		public ConsList<A> tail() {
+			return tail;
+		}
+	}
+
+	public static final class Nil<A> extends ConsList<A> {
+		private Nil(){}
+
+		@Override
+		public boolean isEmpty() {
+			return true;
+		}
+
+		@Override
+		public int size() {
+			return 0;
+		}
+
+		@Override
+		public A head() {
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public Option<A> headOption() {
+			return Option.none();
+		}
+
+		@Override
+		public ConsList<A> tail() {
+			throw new NoSuchElementException();
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.utils.SE;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+// 期限切れの値の扱い:
+// - executor があれば、期限切れでも古い値を返しつつバックグラウンドで読み直す
+// - executor がない場合や invalidate の直後、バックグラウンド更新が失敗した後は同期的に読み直す
+public class ExpiringLazyVal<A> {
+
+	private final Object lock = new Object();
+
+	private final SE<? extends A> supplier;
+	private final long ttlNanos;
+	private final long refreshAheadNanos;
+	private final Option<Executor> executorOpt;
+	private final LongSupplier ticker;
+
+	private final AtomicBoolean refreshing = new AtomicBoolean(false);
+	private volatile Entry<A> entry = null;
+	private volatile Entry<A> failedRefresh = null;
+	private volatile long generation = 0;
+
+	private ExpiringLazyVal(Builder builder, SE<? extends A> supplier) {
+		this.supplier = supplier;
+		this.ttlNanos = builder.ttlNanos;
+		this.refreshAheadNanos = builder.refreshAheadNanos < 0 ? ttlNanos / 10 : builder.refreshAheadNanos;
+		this.executorOpt = builder.executorOpt;
+		this.ticker = builder.ticker;
+	}
+
+	public static Builder builder(long ttl, TimeUnit unit) {
+		return new Builder(ttl, unit);
+	}
+
+	public A get() {
+
+		try {
+			return gete();
+		}catch(RuntimeException e){
+			throw e;
+		}catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public A gete() throws Exception {
+
+		Entry<A> current = entry;
+		if (current == null) {
+			return load(null);
+		}
+
+		long age = ticker.getAsLong() - current.loadedAt;
+
+		if (age >= ttlNanos) {
+			// 更新の失敗は、古い値で隠さず同期ロードで呼び出し元へ伝える
+			if (executorOpt.isSome() && failedRefresh != current && refreshAsync(current)) {
+				return current.value;
+			}
+			return load(current);
+		}
+
+		if (age >= ttlNanos - refreshAheadNanos && executorOpt.isSome()) {
+			refreshAsync(current);
+		}
+
+		return current.value;
+	}
+
+	public void invalidate() {
+		synchronized (lock) {
+			this.generation++;
+			this.entry = null;
+		}
+	}
+
+	public boolean isInitialized() {
+		return entry != null;
+	}
+
+	private A load(Entry<A> stale) throws Exception {
+
+		synchronized (lock) {
+			Entry<A> current = entry;
+			if (current != null && current != stale) {
+				return current.value;
+			}
+
+			A value = supplier.get();
+			this.entry = new Entry<>(value, ticker.getAsLong());
+			return value;
+		}
+	}
+
+	private boolean refreshAsync(Entry<A> stale) {
+
+		if (!refreshing.compareAndSet(false, true)) {
+			return true;
+		}
+
+		long expectedGeneration = generation;
+		try {
+			executorOpt.peek(() -> {}, executor -> executor.execute(() -> {
+				try {
+					A value = supplier.get();
+					synchronized (lock) {
+						if (generation == expectedGeneration && entry == stale) {
+							this.entry = new Entry<>(value, ticker.getAsLong());
+						}
+					}
+				} catch (Exception e) {
+					// 古い値を使い続け、期限切れ後の同期ロードで失敗を呼び出し元へ伝える
+					this.failedRefresh = stale;
+				} finally {
+					refreshing.set(false);
+				}
+			}));
+			return true;
+		} catch (RejectedExecutionException e) {
+			refreshing.set(false);
+			return false;
+		}
+	}
+
+	private static class Entry<A> {
+
+		private final A value;
+		private final long loadedAt;
+
+		Entry(A value, long loadedAt) {
+			this.value = value;
+			this.loadedAt = loadedAt;
+		}
+	}
+
+	public static class Builder {
+
+		private final long ttlNanos;
+		private long refreshAheadNanos = -1;
+		private Option<Executor> executorOpt = Option.none();
+		private LongSupplier ticker = System::nanoTime;
+
+		private Builder(long ttl, TimeUnit unit) {
+			if (ttl <= 0) {
+				throw new IllegalArgumentException("ttl must be positive: " + ttl);
+			}
+			this.ttlNanos = unit.toNanos(ttl);
+		}
+
+		public Builder refreshAhead(long duration, TimeUnit unit, Executor executor) {
+			long nanos = unit.toNanos(duration);
+			if (nanos < 0 || nanos >= ttlNanos) {
+				throw new IllegalArgumentException("refresh-ahead must be between 0 and ttl: " + duration);
+			}
+			this.refreshAheadNanos = nanos;
+			this.executorOpt = Option.of(Objects.requireNonNull(executor));
+			return this;
+		}
+
+		public Builder refreshAhead(Executor executor) {
+			this.refreshAheadNanos = -1;
+			this.executorOpt = Option.of(Objects.requireNonNull(executor));
+			return this;
+		}
+
+		public Builder ticker(LongSupplier ticker) {
+			this.ticker = Objects.requireNonNull(ticker);
+			return this;
+		}
+
+		public <A> ExpiringLazyVal<A> build(SE<? extends A> supplier) {
+			return new ExpiringLazyVal<>(this, Objects.requireNonNull(supplier));
+		}
+	}
+}
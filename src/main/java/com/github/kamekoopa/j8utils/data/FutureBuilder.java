@@ -16,59 +16,443 @@
 
 package com.github.kamekoopa.j8utils.data;
 
+import com.github.kamekoopa.j8utils.concurrent.CancelToken;
+import com.github.kamekoopa.j8utils.concurrent.TimerWheel;
 import com.github.kamekoopa.j8utils.utils.F3;
 import com.github.kamekoopa.j8utils.utils.F4;
 import com.github.kamekoopa.j8utils.utils.F5;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class FutureBuilder {
 
 	private final Option<Executor> executorOpt;
+	private final boolean sameThread;
+	private final TimerWheel timer;
 
-	private FutureBuilder(Option<Executor> executorOpt) {
+	private FutureBuilder(Option<Executor> executorOpt, boolean sameThread, TimerWheel timer) {
 		this.executorOpt = executorOpt;
+		this.sameThread = sameThread;
+		this.timer = timer;
 	}
 
 	public static FutureBuilder build(){
-		return new FutureBuilder(Option.none());
+		return new FutureBuilder(Option.none(), false, TimerWheel.shared());
 	}
 
 	public static FutureBuilder buildWith(Executor executor) {
-		return new FutureBuilder(Option.of(executor));
+		return new FutureBuilder(Option.of(executor), false, TimerWheel.shared());
+	}
+
+	public FutureBuilder sameThread() {
+		return new FutureBuilder(executorOpt, true, timer);
+	}
+
+	public FutureBuilder withTimer(TimerWheel timer) {
+		return new FutureBuilder(executorOpt, sameThread, timer);
 	}
 
 	public <A> Future<A> run(Supplier<? extends A> supplier) {
-		return new Future<>(supplier);
+		return runCancellable(token -> supplier.get());
+	}
+
+	public <A> Future<A> runCancellable(Function<? super CancelToken, ? extends A> f) {
+		CancelToken token = CancelToken.create();
+		return new Future<>(supplyAsync(interruptible(token, () -> f.apply(token))), token);
+	}
+
+	// exited は処理を抜けた後か、一度も実行されないまま確定したときに一度だけ呼ばれる
+	<A> Future<A> run(Supplier<? extends A> supplier, Runnable exited) {
+
+		CancelToken token = CancelToken.create();
+		Supplier<A> body = interruptible(token, supplier);
+		AtomicBoolean claimed = new AtomicBoolean(false);
+
+		CompletableFuture<A> future = supplyAsync(() -> {
+			if (!claimed.compareAndSet(false, true)) {
+				throw new CancellationException();
+			}
+			try {
+				return body.get();
+			} finally {
+				exited.run();
+			}
+		});
+		future.whenComplete((v, e) -> {
+			if (claimed.compareAndSet(false, true)) {
+				exited.run();
+			}
+		});
+
+		return new Future<>(future, token);
+	}
+
+	public <A> Future<A> from(CompletableFuture<? extends A> future) {
+		// 取り消しが元の CompletableFuture に波及しないよう、依存する段を挟む
+		return new Future<>(future.thenApply(Function.<A>identity()), CancelToken.create());
+	}
+
+	public <A> Future<A> delay(long time, TimeUnit unit, Supplier<? extends A> supplier) {
+
+		CompletableFuture<A> delayed = new CompletableFuture<>();
+		CancelToken token = CancelToken.create();
+		TimerWheel.Timeout timeout = timer.schedule(() -> dispatch(() -> {
+			try {
+				token.throwIfCancelled();
+				delayed.complete(supplier.get());
+			} catch (Throwable e) {
+				delayed.completeExceptionally(e);
+			}
+		}), time, unit);
+		token.onCancel(timeout::cancel);
+
+		return new Future<>(delayed, token);
+	}
+
+	private <A> Supplier<A> interruptible(CancelToken token, Supplier<? extends A> supplier) {
+
+		Runner runner = new Runner();
+		token.onCancel(runner::interrupt);
+
+		return () -> {
+			token.throwIfCancelled();
+			runner.enter();
+			try {
+				return supplier.get();
+			} finally {
+				runner.exit(token);
+			}
+		};
+	}
+
+	private <A> CompletableFuture<A> supplyAsync(Supplier<A> supplier) {
+		return executorOpt.fold(
+			() -> CompletableFuture.<A>supplyAsync(supplier),
+			executor -> CompletableFuture.<A>supplyAsync(supplier, executor)
+		);
 	}
 
+	private void dispatch(Runnable task) {
+		try {
+			executorOpt.getOrElse(ForkJoinPool::commonPool).execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public <A> Future<List<A>> sequence(List<? extends Future<? extends A>> futures) {
+		CompletableFuture<?> joined = joinAll(futures);
+		return new Future<>((CompletableFuture<List<A>>) joined, CancelToken.create(), futures.toArray(new Future<?>[futures.size()]));
+	}
 
+	public <A, B> Future<List<B>> traverse(List<? extends A> list, Function<? super A, ? extends Future<? extends B>> f) {
+
+		List<Future<? extends B>> futures = new ArrayList<>(list.size());
+		for (A a : list) {
+			futures.add(f.apply(a));
+		}
+
+		return sequence(futures);
+	}
+
+	@SafeVarargs
+	public final <A> Future<A> race(Future<? extends A>... futures) {
+
+		List<Future<? extends A>> list = new ArrayList<>(futures.length);
+		for (Future<? extends A> future : futures) {
+			list.add(future);
+		}
+		return race(list);
+	}
+
+	public <A> Future<A> race(List<? extends Future<? extends A>> futures) {
+
+		if (futures.isEmpty()) {
+			throw new IllegalArgumentException("futures must not be empty");
+		}
+
+		CompletableFuture<A> winner = new CompletableFuture<>();
+		AtomicInteger remaining = new AtomicInteger(futures.size());
+		for (Future<? extends A> future : futures) {
+			future.underlying.whenComplete((v, e) -> {
+				if (e == null) {
+					if (winner.complete(v)) {
+						// 負けた側は結果を待たずに手放す。他に待っているものがなければ取り消される
+						for (Future<?> other : futures) {
+							if (other != future) {
+								other.release();
+							}
+						}
+					}
+				} else if (remaining.decrementAndGet() == 0) {
+					winner.completeExceptionally(e);
+				}
+			});
+		}
+
+		return new Future<>(winner, CancelToken.create(), futures.toArray(new Future<?>[futures.size()]));
+	}
+
+	private Future<List<Object>> join(Future<?>... futures) {
+		return new Future<>(joinAll(Arrays.asList(futures)), CancelToken.create(), futures);
+	}
+
+	private static CompletableFuture<List<Object>> joinAll(List<? extends Future<?>> futures) {
+
+		CompletableFuture<List<Object>> joined = new CompletableFuture<>();
+
+		int size = futures.size();
+		if (size == 0) {
+			joined.complete(new ArrayList<>());
+			return joined;
+		}
+
+		Object[] values = new Object[size];
+		AtomicInteger remaining = new AtomicInteger(size);
+		for (int i = 0; i < size; i++) {
+			int index = i;
+			futures.get(i).underlying.whenComplete((v, e) -> {
+				if (e != null) {
+					joined.completeExceptionally(e);
+				} else {
+					values[index] = v;
+					if (remaining.decrementAndGet() == 0) {
+						joined.complete(Arrays.asList(values));
+					}
+				}
+			});
+		}
+
+		return joined;
+	}
+
+	private static <A> Try<A> asTry(A value, Throwable e) {
+
+		if (e == null) {
+			return Try.success(value);
+		}
+
+		Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+		return Try.failure(cause instanceof Exception ? (Exception) cause : new ExecutionException(cause));
+	}
+
+
+	private static class Runner {
+
+		private Thread thread = null;
+
+		synchronized void enter() {
+			this.thread = Thread.currentThread();
+		}
+
+		synchronized void exit(CancelToken token) {
+			this.thread = null;
+			if (token.isCancelled()) {
+				// 取り消しのための割り込みをプールのスレッドに残さない
+				Thread.interrupted();
+			}
+		}
+
+		synchronized void interrupt() {
+			if (thread != null) {
+				thread.interrupt();
+			}
+		}
+	}
+
+	private static final Future<?>[] NO_UPSTREAM = new Future<?>[0];
+	private static final Object CANCELLED = new Object();
 
 	public class Future<A> {
 
 		protected final CompletableFuture<? extends A> underlying;
+		private final CancelToken token;
+		private final Future<?>[] upstream;
+		private final AtomicReference<Object> inner;
+		private final AtomicInteger dependents = new AtomicInteger();
 
-		private Future(Supplier<? extends A> supplier) {
-			this.underlying = supplyAsync(supplier);
+		private Future(CompletableFuture<? extends A> underlying, CancelToken token, Future<?>... upstream) {
+			this(underlying, token, null, upstream);
 		}
 
-		private Future(CompletableFuture<? extends A> underlying) {
+		private Future(CompletableFuture<? extends A> underlying, CancelToken token, AtomicReference<Object> inner, Future<?>... upstream) {
 			this.underlying = underlying;
+			this.token = token;
+			this.inner = inner;
+			this.upstream = upstream.length == 0 ? NO_UPSTREAM : upstream;
+			for (Future<?> future : upstream) {
+				future.dependents.incrementAndGet();
+			}
 		}
 
 		public <B> Future<B> map(Function<? super A, ? extends B> f) {
-			return new Future<>(thenApplyAsync(f));
+			return new Future<>(thenApplyAsync(f), CancelToken.create(), this);
 		}
 
 		public <B> Future<B> flatMap(Function<? super A, ? extends Future<? extends B>> f) {
-			CompletableFuture<? extends B> completableFuture = this.thenComposeAsync(v -> f.apply(v).underlying);
-			return new Future<>(completableFuture);
+
+			AtomicReference<Object> inner = new AtomicReference<>();
+
+			CompletableFuture<? extends B> completableFuture = this.thenComposeAsync(v -> {
+				Future<? extends B> next = f.apply(v);
+				next.dependents.incrementAndGet();
+				if (!inner.compareAndSet(null, next)) {
+					next.release();
+				}
+				return next.underlying;
+			});
+
+			return new Future<>(completableFuture, CancelToken.create(), inner, this);
+		}
+
+		public boolean cancel() {
+
+			if (underlying.isDone() || !underlying.cancel(false)) {
+				return false;
+			}
+
+			// 割り込みや後始末のフックは、結果が確定してから実行する
+			RuntimeException hookFailure = null;
+			try {
+				token.cancel();
+			} catch (RuntimeException e) {
+				hookFailure = e;
+			}
+
+			// 上流は他の後続が待っていない場合だけ取り消す
+			for (Future<?> future : upstream) {
+				future.release();
+			}
+
+			Object next = inner == null ? null : inner.getAndSet(CANCELLED);
+			if (next instanceof Future) {
+				((Future<?>) next).release();
+			}
+
+			if (hookFailure != null) {
+				throw hookFailure;
+			}
+			return true;
+		}
+
+		private void release() {
+			if (dependents.decrementAndGet() == 0) {
+				cancel();
+			}
+		}
+
+		public boolean isCancelled() {
+			return token.isCancelled();
+		}
+
+		public Future<A> onCancel(Runnable hook) {
+			token.onCancel(hook);
+			return this;
+		}
+
+		public CompletableFuture<A> toCompletableFuture() {
+			return this.underlying.thenApply(Function.<A>identity());
+		}
+
+		public Future<A> within(long time, TimeUnit unit) {
+
+			CompletableFuture<A> result = new CompletableFuture<>();
+			TimerWheel.Timeout timeout = timer.schedule(() -> {
+				if (!result.isDone()) {
+					dispatch(() -> result.completeExceptionally(new TimeoutException("not completed within " + time + " " + unit)));
+				}
+			}, time, unit);
+
+			this.underlying.whenComplete((v, e) -> {
+				timeout.cancel();
+				if (e != null) {
+					result.completeExceptionally(e);
+				} else {
+					result.complete(v);
+				}
+			});
+
+			return new Future<>(result, CancelToken.create(), this);
+		}
+
+		public Future<A> onComplete(Consumer<? super Try<A>> callback) {
+
+			this.handleAsync((v, e) -> {
+				callback.accept(asTry(v, e));
+				return null;
+			});
+			return this;
+		}
+
+		public Future<Try<A>> toTry() {
+			return transform(Try::success);
+		}
+
+		public <B> Future<B> transform(Function<? super Try<A>, ? extends Try<? extends B>> f) {
+
+			CancelToken token = CancelToken.create();
+			CompletableFuture<B> result = new CompletableFuture<>();
+
+			this.handleAsync((v, e) -> {
+				// 取り消し済みなら変換は実行しない
+				if (!token.isCancelled()) {
+					try {
+						f.apply(asTry(v, e)).fold(result::complete, result::completeExceptionally);
+					} catch (Throwable t) {
+						result.completeExceptionally(t);
+					}
+				}
+				return null;
+			});
+
+			return new Future<>(result, token, this);
+		}
+
+		public Future<A> recover(Function<Exception, ? extends A> f) {
+			return transform(t -> t.<Try<A>>fold(v -> t, e -> Try.of(() -> f.apply(e))));
+		}
+
+		@SuppressWarnings("unchecked")
+		public Future<A> recoverWith(Function<Exception, ? extends Future<? extends A>> f) {
+
+			CancelToken token = CancelToken.create();
+			AtomicReference<Object> inner = new AtomicReference<>();
+
+			CompletableFuture<A> completableFuture = this.<CompletableFuture<A>>handleAsync((v, e) -> {
+
+				Try<A> t = asTry(v, e);
+				if (t.isSuccess() || token.isCancelled()) {
+					return (CompletableFuture<A>) Future.this.underlying;
+				}
+
+				Future<? extends A> next = t.fold(x -> null, f::apply);
+				next.dependents.incrementAndGet();
+				if (!inner.compareAndSet(null, next)) {
+					next.release();
+				}
+				return (CompletableFuture<A>) next.underlying;
+			}).thenCompose(Function.identity());
+
+			return new Future<>(completableFuture, token, inner, this);
 		}
 
 		public Try<A> tryGet() {
@@ -108,34 +492,49 @@ public class FutureBuilder {
 			});
 		}
 
+		@SuppressWarnings("unchecked")
 		public <B, X> Future<X> ap(Future<? extends B> fb, BiFunction<? super A, ? super B, ? extends X> f) {
-			return this.flatMap(a -> fb.map(b -> f.apply(a, b)));
+			return join(this, fb).map(vs -> f.apply((A) vs.get(0), (B) vs.get(1)));
 		}
 
+		@SuppressWarnings("unchecked")
 		public <B, C, X> Future<X> ap(Future<? extends B> fb, Future<? extends C> fc, F3<? super A, ? super B, ? super C, ? extends X> f) {
-			return this.flatMap(a -> fb.<X>flatMap(b -> fc.map(c -> f.apply(a, b, c))));
+			return join(this, fb, fc).map(vs -> f.apply((A) vs.get(0), (B) vs.get(1), (C) vs.get(2)));
 		}
 
+		@SuppressWarnings("unchecked")
 		public <B, C, D, X> Future<X> ap(Future<? extends B> fb, Future<? extends C> fc, Future<? extends D> fd, F4<? super A, ? super B, ? super C, ? super D, ? extends X> f) {
-			return this.flatMap(a -> fb.<X>flatMap(b -> fc.<X>flatMap(c -> fd.map(d -> f.apply(a, b, c, d)))));
+			return join(this, fb, fc, fd).map(vs -> f.apply((A) vs.get(0), (B) vs.get(1), (C) vs.get(2), (D) vs.get(3)));
 		}
 
+		@SuppressWarnings("unchecked")
 		public <B, C, D, E, X> Future<X> ap(Future<? extends B> fb, Future<? extends C> fc, Future<? extends D> fd, Future<? extends E> fe, F5<? super A, ? super B, ? super C, ? super D, ? super E, ? extends X> f) {
-			return this.flatMap(a -> fb.<X>flatMap(b -> fc.<X>flatMap(c -> fd.<X>flatMap(d -> fe.map( e->f.apply(a, b, c, d, e))))));
+			return join(this, fb, fc, fd, fe).map(vs -> f.apply((A) vs.get(0), (B) vs.get(1), (C) vs.get(2), (D) vs.get(3), (E) vs.get(4)));
 		}
 
+		public <B> Future<Tuple2<A, B>> zip(Future<? extends B> fb) {
+			return ap(fb, Tuple2::of);
+		}
 
-		private CompletableFuture<A> supplyAsync(Supplier<? extends A> supplier){
+		public <B, C> Future<Tuple3<A, B, C>> zip(Future<? extends B> fb, Future<? extends C> fc) {
+			return ap(fb, fc, Tuple3::of);
+		}
 
-			return applyExecutor(
-				CompletableFuture::supplyAsync,
-				CompletableFuture::supplyAsync,
-				supplier
-			);
+		public <B, C, D> Future<Tuple4<A, B, C, D>> zip(Future<? extends B> fb, Future<? extends C> fc, Future<? extends D> fd) {
+			return ap(fb, fc, fd, Tuple4::of);
 		}
 
+		public <B, C, D, E> Future<Tuple5<A, B, C, D, E>> zip(Future<? extends B> fb, Future<? extends C> fc, Future<? extends D> fd, Future<? extends E> fe) {
+			return ap(fb, fc, fd, fe, Tuple5::of);
+		}
+
+
 		private <B> CompletableFuture<B> thenApplyAsync(Function<? super A, ? extends B> f) {
 
+			if (sameThread) {
+				return this.underlying.thenApply(f);
+			}
+
 			return applyExecutor(
 				this.underlying::thenApplyAsync,
 				this.underlying::thenApplyAsync,
@@ -143,8 +542,25 @@ public class FutureBuilder {
 			);
 		}
 
+		private <B> CompletableFuture<B> handleAsync(BiFunction<? super A, Throwable, ? extends B> f) {
+
+			if (sameThread) {
+				return this.underlying.handle(f);
+			}
+
+			return applyExecutor(
+				this.underlying::handleAsync,
+				this.underlying::handleAsync,
+				f
+			);
+		}
+
 		private <B> CompletableFuture<B> thenComposeAsync(Function<? super A, ? extends CompletableFuture<B>> f) {
 
+			if (sameThread) {
+				return this.underlying.thenCompose(f);
+			}
+
 			return applyExecutor(
 				this.underlying::thenComposeAsync,
 				this.underlying::thenComposeAsync,
@@ -152,6 +568,9 @@ public class FutureBuilder {
 			);
 		}
 
+		// 取り消しが継続本体に届くよう、継続を実行する段そのものを返す。
+		// 返した段は読み出しにしか使わないので、型を広げても安全
+		@SuppressWarnings("unchecked")
 		private <X, B> CompletableFuture<B> applyExecutor(
 			Function<? super X, CompletableFuture<? extends B>> f1,
 			BiFunction<? super X, Executor, CompletableFuture<? extends B>> f2,
@@ -159,8 +578,8 @@ public class FutureBuilder {
 		) {
 
 			return executorOpt.fold(
-				() -> f1.apply(x).thenApply(Function.<B>identity()),
-				executor -> f2.apply(x, executor).thenApply(Function.<B>identity())
+				() -> (CompletableFuture<B>) f1.apply(x),
+				executor -> (CompletableFuture<B>) f2.apply(x, executor)
 			);
 		}
 	}
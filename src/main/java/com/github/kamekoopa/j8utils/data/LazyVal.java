@@ -20,10 +20,12 @@ import com.github.kamekoopa.j8utils.utils.SE;
 
 public class LazyVal<A> {
 
+	private static final Object UNINITIALIZED = new Object();
+
 	private final Object lock = new Object();
 
-	private final SE<? extends A> supplier;
-	private A cache = null;
+	private SE<? extends A> supplier;
+	private volatile Object cache = UNINITIALIZED;
 
 	private LazyVal(SE<? extends A> supplier){
 		this.supplier = supplier;
@@ -44,14 +46,23 @@ public class LazyVal<A> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public A gete() throws Exception {
 
+		Object value = cache;
+		if (value != UNINITIALIZED) {
+			return (A) value;
+		}
+
 		synchronized (lock) {
-			if (cache == null) {
-				this.cache = supplier.get();
+			value = cache;
+			if (value == UNINITIALIZED) {
+				value = supplier.get();
+				this.cache = value;
+				this.supplier = null;
 			}
 		}
 
-		return cache;
+		return (A) value;
 	}
 }
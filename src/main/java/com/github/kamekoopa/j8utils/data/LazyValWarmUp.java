@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyValWarmUp {
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	private LazyValWarmUp() {
+	}
+
+	public static LazyValWarmUp create() {
+		return new LazyValWarmUp();
+	}
+
+	public LazyValWarmUp register(String name, LazyVal<?> lazyVal, String... dependsOn) {
+
+		if (entries.containsKey(name)) {
+			throw new IllegalArgumentException("already registered: " + name);
+		}
+
+		entries.put(name, new Entry(lazyVal, Arrays.asList(dependsOn)));
+		return this;
+	}
+
+	public Try<Map<String, Duration>> run(Executor executor) {
+		return start(executor).tryGet();
+	}
+
+	public FutureBuilder.Future<Map<String, Duration>> start(Executor executor) {
+
+		List<String> order = topologicalOrder();
+
+		CompletableFuture<Map<String, Duration>> result = new CompletableFuture<>();
+		Map<String, Duration> durations = new ConcurrentHashMap<>();
+		AtomicInteger remaining = new AtomicInteger(order.size());
+
+		if (order.isEmpty()) {
+			result.complete(new LinkedHashMap<>());
+		}
+
+		Map<String, CompletableFuture<Duration>> started = new HashMap<>();
+		for (String name : order) {
+
+			Entry entry = entries.get(name);
+			CompletableFuture<?>[] dependencies = entry.dependsOn.stream()
+				.map(started::get)
+				.toArray(CompletableFuture[]::new);
+
+			CompletableFuture<Duration> initialized = CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> {
+
+				if (result.isDone()) {
+					// 他の値が既に失敗しているので初期化しない
+					throw new CancellationException();
+				}
+
+				long start = System.nanoTime();
+				try {
+					entry.lazyVal.gete();
+				} catch (Exception e) {
+					throw new CompletionException(new WarmUpFailure(name, e));
+				}
+				return Duration.ofNanos(System.nanoTime() - start);
+			}, executor);
+
+			initialized.whenComplete((duration, e) -> {
+				if (e != null) {
+					result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+				} else {
+					durations.put(name, duration);
+					if (remaining.decrementAndGet() == 0) {
+						Map<String, Duration> ordered = new LinkedHashMap<>();
+						entries.keySet().forEach(n -> ordered.put(n, durations.get(n)));
+						result.complete(ordered);
+					}
+				}
+			});
+
+			started.put(name, initialized);
+		}
+
+		return FutureBuilder.buildWith(executor).from(result);
+	}
+
+	private List<String> topologicalOrder() {
+
+		List<String> order = new ArrayList<>(entries.size());
+		Map<String, Boolean> visited = new HashMap<>();
+
+		for (String name : entries.keySet()) {
+			visit(name, visited, order, new ArrayList<>());
+		}
+
+		return order;
+	}
+
+	private void visit(String name, Map<String, Boolean> visited, List<String> order, List<String> path) {
+
+		Boolean done = visited.get(name);
+		if (done != null) {
+			if (!done) {
+				path.add(name);
+				throw new IllegalArgumentException("cyclic dependency: " + String.join(" -> ", path));
+			}
+			return;
+		}
+
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			throw new IllegalArgumentException("unknown dependency: " + name + " required by " + path.get(path.size() - 1));
+		}
+
+		visited.put(name, false);
+		path.add(name);
+		for (String dependency : entry.dependsOn) {
+			visit(dependency, visited, order, path);
+		}
+		path.remove(path.size() - 1);
+		visited.put(name, true);
+
+		order.add(name);
+	}
+
+	public static class WarmUpFailure extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		public final String name;
+
+		WarmUpFailure(String name, Throwable cause) {
+			super("failed to initialize " + name, cause);
+			this.name = name;
+		}
+	}
+
+	private static class Entry {
+
+		private final LazyVal<?> lazyVal;
+		private final List<String> dependsOn;
+
+		Entry(LazyVal<?> lazyVal, List<String> dependsOn) {
+			this.lazyVal = lazyVal;
+			this.dependsOn = dependsOn;
+		}
+	}
+}
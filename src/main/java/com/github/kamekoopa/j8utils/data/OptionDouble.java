@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.function.*;
+import java.util.stream.DoubleStream;
+
+public abstract class OptionDouble {
+
+	private static final None none = new None();
+
+	public static OptionDouble of(double a){
+		return new Some(a);
+	}
+
+	public static OptionDouble from(OptionalDouble optional){
+		if( optional == null || !optional.isPresent() ) {
+			return none();
+		}else{
+			return of(optional.getAsDouble());
+		}
+	}
+
+	public static OptionDouble from(Option<? extends Double> option){
+		return option.fold(OptionDouble::none, OptionDouble::of);
+	}
+
+	public static OptionDouble none(){
+		return none;
+	}
+
+	public abstract boolean isSome();
+
+	public abstract boolean isNone();
+
+	public abstract OptionDouble filter(DoublePredicate p);
+
+	public abstract OptionDouble map(DoubleUnaryOperator f);
+
+	public abstract OptionInt mapToInt(DoubleToIntFunction f);
+
+	public abstract OptionLong mapToLong(DoubleToLongFunction f);
+
+	public abstract <B> Option<B> mapToObj(DoubleFunction<? extends B> f);
+
+	public abstract OptionDouble flatMap(DoubleFunction<? extends OptionDouble> f);
+
+	public abstract <B> B fold(Supplier<? extends B> none, DoubleFunction<? extends B> f);
+
+	public abstract double foldDouble(DoubleSupplier none, DoubleUnaryOperator f);
+
+	public abstract double getOrElse(DoubleSupplier def);
+
+	public abstract OptionDouble ifEmpty(DoubleSupplier ifEmpty);
+
+	public abstract OptionDouble or(Supplier<? extends OptionDouble> optionSupplier);
+
+	public abstract double unsafeGet() throws Exception;
+
+	public abstract OptionDouble peek(Runnable ifNone, DoubleConsumer ifSome);
+
+	public abstract DoubleStream stream();
+
+	public abstract Option<Double> toOption();
+
+	public abstract OptionalDouble toOptional();
+
+	public OptionDouble ap(OptionDouble ob, DoubleBinaryOperator f) {
+		return this.flatMap(a -> ob.map(b -> f.applyAsDouble(a, b)));
+	}
+
+
+	public static final class Some extends OptionDouble {
+
+		private final double a;
+
+		private Some(double a) {
+			this.a = a;
+		}
+
+		@Override
+		public boolean isSome() {
+			return true;
+		}
+
+		@Override
+		public boolean isNone() {
+			return false;
+		}
+
+		@Override
+		public OptionDouble filter(DoublePredicate p){
+			if(p.test(a)){
+				return this;
+			}else{
+				return none();
+			}
+		}
+
+		@Override
+		public OptionDouble map(DoubleUnaryOperator f) {
+			return new Some(f.applyAsDouble(a));
+		}
+
+		@Override
+		public OptionInt mapToInt(DoubleToIntFunction f) {
+			return OptionInt.of(f.applyAsInt(a));
+		}
+
+		@Override
+		public OptionLong mapToLong(DoubleToLongFunction f) {
+			return OptionLong.of(f.applyAsLong(a));
+		}
+
+		@Override
+		public <B> Option<B> mapToObj(DoubleFunction<? extends B> f) {
+			return Option.of(f.apply(a));
+		}
+
+		@Override
+		public OptionDouble flatMap(DoubleFunction<? extends OptionDouble> f) {
+			return f.apply(a);
+		}
+
+		@Override
+		public <B> B fold(Supplier<? extends B> none, DoubleFunction<? extends B> f) {
+			return f.apply(a);
+		}
+
+		@Override
+		public double foldDouble(DoubleSupplier none, DoubleUnaryOperator f) {
+			return f.applyAsDouble(a);
+		}
+
+		@Override
+		public double getOrElse(DoubleSupplier def){
+			return a;
+		}
+
+		@Override
+		public OptionDouble ifEmpty(DoubleSupplier ifEmpty) {
+			return this;
+		}
+
+		@Override
+		public OptionDouble or(Supplier<? extends OptionDouble> optionSupplier) {
+			return this;
+		}
+
+		@Override
+		public double unsafeGet() throws Exception {
+			return a;
+		}
+
+		@Override
+		public OptionDouble peek(Runnable ifNone, DoubleConsumer ifSome) {
+			ifSome.accept(a);
+			return this;
+		}
+
+		@Override
+		public DoubleStream stream() {
+			return DoubleStream.of(a);
+		}
+
+		@Override
+		public Option<Double> toOption() {
+			return Option.of(a);
+		}
+
+		@Override
+		public OptionalDouble toOptional() {
+			return OptionalDouble.of(a);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Some)) return false;
+
+			Some some = (Some) o;
+
+			return Double.compare(a, some.a) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return Double.hashCode(a);
+		}
+
+		@Override
+		public String toString() {
+			return "Some("+a+")";
+		}
+	}
+
+	public static final class None extends OptionDouble {
+		private None(){}
+
+		@Override
+		public boolean isSome() {
+			return false;
+		}
+
+		@Override
+		public boolean isNone() {
+			return true;
+		}
+
+		@Override
+		public OptionDouble filter(DoublePredicate p){
+			return this;
+		}
+
+		@Override
+		public OptionDouble map(DoubleUnaryOperator f) {
+			return this;
+		}
+
+		@Override
+		public OptionInt mapToInt(DoubleToIntFunction f) {
+			return OptionInt.none();
+		}
+
+		@Override
+		public OptionLong mapToLong(DoubleToLongFunction f) {
+			return OptionLong.none();
+		}
+
+		@Override
+		public <B> Option<B> mapToObj(DoubleFunction<? extends B> f) {
+			return Option.none();
+		}
+
+		@Override
+		public OptionDouble flatMap(DoubleFunction<? extends OptionDouble> f) {
+			return this;
+		}
+
+		@Override
+		public <B> B fold(Supplier<? extends B> none, DoubleFunction<? extends B> f) {
+			return none.get();
+		}
+
+		@Override
+		public double foldDouble(DoubleSupplier none, DoubleUnaryOperator f) {
+			return none.getAsDouble();
+		}
+
+		@Override
+		public double getOrElse(DoubleSupplier def){
+			return def.getAsDouble();
+		}
+
+		@Override
+		public OptionDouble ifEmpty(DoubleSupplier ifEmpty) {
+			return OptionDouble.of(ifEmpty.getAsDouble());
+		}
+
+		@Override
+		public OptionDouble or(Supplier<? extends OptionDouble> optionSupplier) {
+			return optionSupplier.get();
+		}
+
+		@Override
+		public double unsafeGet() throws Exception {
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public OptionDouble peek(Runnable ifNone, DoubleConsumer ifSome) {
+			ifNone.run();
+			return this;
+		}
+
+		@Override
+		public DoubleStream stream() {
+			return DoubleStream.empty();
+		}
+
+		@Override
+		public Option<Double> toOption() {
+			return Option.none();
+		}
+
+		@Override
+		public OptionalDouble toOptional() {
+			return OptionalDouble.empty();
+		}
+
+		@Override
+		public String toString() {
+			return "None";
+		}
+	}
+}
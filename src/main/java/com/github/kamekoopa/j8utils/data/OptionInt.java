@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.function.*;
+import java.util.stream.IntStream;
+
+public abstract class OptionInt {
+
+	private static final None none = new None();
+
+	public static OptionInt of(int a){
+		return new Some(a);
+	}
+
+	public static OptionInt from(OptionalInt optional){
+		if( optional == null || !optional.isPresent() ) {
+			return none();
+		}else{
+			return of(optional.getAsInt());
+		}
+	}
+
+	public static OptionInt from(Option<? extends Integer> option){
+		return option.fold(OptionInt::none, OptionInt::of);
+	}
+
+	public static OptionInt none(){
+		return none;
+	}
+
+	public abstract boolean isSome();
+
+	public abstract boolean isNone();
+
+	public abstract OptionInt filter(IntPredicate p);
+
+	public abstract OptionInt map(IntUnaryOperator f);
+
+	public abstract OptionLong mapToLong(IntToLongFunction f);
+
+	public abstract OptionDouble mapToDouble(IntToDoubleFunction f);
+
+	public abstract <B> Option<B> mapToObj(IntFunction<? extends B> f);
+
+	public abstract OptionInt flatMap(IntFunction<? extends OptionInt> f);
+
+	public abstract <B> B fold(Supplier<? extends B> none, IntFunction<? extends B> f);
+
+	public abstract int foldInt(IntSupplier none, IntUnaryOperator f);
+
+	public abstract int getOrElse(IntSupplier def);
+
+	public abstract OptionInt ifEmpty(IntSupplier ifEmpty);
+
+	public abstract OptionInt or(Supplier<? extends OptionInt> optionSupplier);
+
+	public abstract int unsafeGet() throws Exception;
+
+	public abstract OptionInt peek(Runnable ifNone, IntConsumer ifSome);
+
+	public abstract IntStream stream();
+
+	public abstract Option<Integer> toOption();
+
+	public abstract OptionalInt toOptional();
+
+	public OptionInt ap(OptionInt ob, IntBinaryOperator f) {
+		return this.flatMap(a -> ob.map(b -> f.applyAsInt(a, b)));
+	}
+
+
+	public static final class Some extends OptionInt {
+
+		private final int a;
+
+		private Some(int a) {
+			this.a = a;
+		}
+
+		@Override
+		public boolean isSome() {
+			return true;
+		}
+
+		@Override
+		public boolean isNone() {
+			return false;
+		}
+
+		@Override
+		public OptionInt filter(IntPredicate p){
+			if(p.test(a)){
+				return this;
+			}else{
+				return none();
+			}
+		}
+
+		@Override
+		public OptionInt map(IntUnaryOperator f) {
+			return new Some(f.applyAsInt(a));
+		}
+
+		@Override
+		public OptionLong mapToLong(IntToLongFunction f) {
+			return OptionLong.of(f.applyAsLong(a));
+		}
+
+		@Override
+		public OptionDouble mapToDouble(IntToDoubleFunction f) {
+			return OptionDouble.of(f.applyAsDouble(a));
+		}
+
+		@Override
+		public <B> Option<B> mapToObj(IntFunction<? extends B> f) {
+			return Option.of(f.apply(a));
+		}
+
+		@Override
+		public OptionInt flatMap(IntFunction<? extends OptionInt> f) {
+			return f.apply(a);
+		}
+
+		@Override
+		public <B> B fold(Supplier<? extends B> none, IntFunction<? extends B> f) {
+			return f.apply(a);
+		}
+
+		@Override
+		public int foldInt(IntSupplier none, IntUnaryOperator f) {
+			return f.applyAsInt(a);
+		}
+
+		@Override
+		public int getOrElse(IntSupplier def){
+			return a;
+		}
+
+		@Override
+		public OptionInt ifEmpty(IntSupplier ifEmpty) {
+			return this;
+		}
+
+		@Override
+		public OptionInt or(Supplier<? extends OptionInt> optionSupplier) {
+			return this;
+		}
+
+		@Override
+		public int unsafeGet() throws Exception {
+			return a;
+		}
+
+		@Override
+		public OptionInt peek(Runnable ifNone, IntConsumer ifSome) {
+			ifSome.accept(a);
+			return this;
+		}
+
+		@Override
+		public IntStream stream() {
+			return IntStream.of(a);
+		}
+
+		@Override
+		public Option<Integer> toOption() {
+			return Option.of(a);
+		}
+
+		@Override
+		public OptionalInt toOptional() {
+			return OptionalInt.of(a);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Some)) return false;
+
+			Some some = (Some) o;
+
+			return Integer.compare(a, some.a) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return Integer.hashCode(a);
+		}
+
+		@Override
+		public String toString() {
+			return "Some("+a+")";
+		}
+	}
+
+	public static final class None extends OptionInt {
+		private None(){}
+
+		@Override
+		public boolean isSome() {
+			return false;
+		}
+
+		@Override
+		public boolean isNone() {
+			return true;
+		}
+
+		@Override
+		public OptionInt filter(IntPredicate p){
+			return this;
+		}
+
+		@Override
+		public OptionInt map(IntUnaryOperator f) {
+			return this;
+		}
+
+		@Override
+		public OptionLong mapToLong(IntToLongFunction f) {
+			return OptionLong.none();
+		}
+
+		@Override
+		public OptionDouble mapToDouble(IntToDoubleFunction f) {
+			return OptionDouble.none();
+		}
+
+		@Override
+		public <B> Option<B> mapToObj(IntFunction<? extends B> f) {
+			return Option.none();
+		}
+
+		@Override
+		public OptionInt flatMap(IntFunction<? extends OptionInt> f) {
+			return this;
+		}
+
+		@Override
+		public <B> B fold(Supplier<? extends B> none, IntFunction<? extends B> f) {
+			return none.get();
+		}
+
+		@Override
+		public int foldInt(IntSupplier none, IntUnaryOperator f) {
+			return none.getAsInt();
+		}
+
+		@Override
+		public int getOrElse(IntSupplier def){
+			return def.getAsInt();
+		}
+
+		@Override
+		public OptionInt ifEmpty(IntSupplier ifEmpty) {
+			return OptionInt.of(ifEmpty.getAsInt());
+		}
+
+		@Override
+		public OptionInt or(Supplier<? extends OptionInt> optionSupplier) {
+			return optionSupplier.get();
+		}
+
+		@Override
+		public int unsafeGet() throws Exception {
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public OptionInt peek(Runnable ifNone, IntConsumer ifSome) {
+			ifNone.run();
+			return this;
+		}
+
+		@Override
+		public IntStream stream() {
+			return IntStream.empty();
+		}
+
+		@Override
+		public Option<Integer> toOption() {
+			return Option.none();
+		}
+
+		@Override
+		public OptionalInt toOptional() {
+			return OptionalInt.empty();
+		}
+
+		@Override
+		public String toString() {
+			return "None";
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.function.*;
+import java.util.stream.LongStream;
+
+public abstract class OptionLong {
+
+	private static final None none = new None();
+
+	public static OptionLong of(long a){
+		return new Some(a);
+	}
+
+	public static OptionLong from(OptionalLong optional){
+		if( optional == null || !optional.isPresent() ) {
+			return none();
+		}else{
+			return of(optional.getAsLong());
+		}
+	}
+
+	public static OptionLong from(Option<? extends Long> option){
+		return option.fold(OptionLong::none, OptionLong::of);
+	}
+
+	public static OptionLong none(){
+		return none;
+	}
+
+	public abstract boolean isSome();
+
+	public abstract boolean isNone();
+
+	public abstract OptionLong filter(LongPredicate p);
+
+	public abstract OptionLong map(LongUnaryOperator f);
+
+	public abstract OptionInt mapToInt(LongToIntFunction f);
+
+	public abstract OptionDouble mapToDouble(LongToDoubleFunction f);
+
+	public abstract <B> Option<B> mapToObj(LongFunction<? extends B> f);
+
+	public abstract OptionLong flatMap(LongFunction<? extends OptionLong> f);
+
+	public abstract <B> B fold(Supplier<? extends B> none, LongFunction<? extends B> f);
+
+	public abstract long foldLong(LongSupplier none, LongUnaryOperator f);
+
+	public abstract long getOrElse(LongSupplier def);
+
+	public abstract OptionLong ifEmpty(LongSupplier ifEmpty);
+
+	public abstract OptionLong or(Supplier<? extends OptionLong> optionSupplier);
+
+	public abstract long unsafeGet() throws Exception;
+
+	public abstract OptionLong peek(Runnable ifNone, LongConsumer ifSome);
+
+	public abstract LongStream stream();
+
+	public abstract Option<Long> toOption();
+
+	public abstract OptionalLong toOptional();
+
+	public OptionLong ap(OptionLong ob, LongBinaryOperator f) {
+		return this.flatMap(a -> ob.map(b -> f.applyAsLong(a, b)));
+	}
+
+
+	public static final class Some extends OptionLong {
+
+		private final long a;
+
+		private Some(long a) {
+			this.a = a;
+		}
+
+		@Override
+		public boolean isSome() {
+			return true;
+		}
+
+		@Override
+		public boolean isNone() {
+			return false;
+		}
+
+		@Override
+		public OptionLong filter(LongPredicate p){
+			if(p.test(a)){
+				return this;
+			}else{
+				return none();
+			}
+		}
+
+		@Override
+		public OptionLong map(LongUnaryOperator f) {
+			return new Some(f.applyAsLong(a));
+		}
+
+		@Override
+		public OptionInt mapToInt(LongToIntFunction f) {
+			return OptionInt.of(f.applyAsInt(a));
+		}
+
+		@Override
+		public OptionDouble mapToDouble(LongToDoubleFunction f) {
+			return OptionDouble.of(f.applyAsDouble(a));
+		}
+
+		@Override
+		public <B> Option<B> mapToObj(LongFunction<? extends B> f) {
+			return Option.of(f.apply(a));
+		}
+
+		@Override
+		public OptionLong flatMap(LongFunction<? extends OptionLong> f) {
+			return f.apply(a);
+		}
+
+		@Override
+		public <B> B fold(Supplier<? extends B> none, LongFunction<? extends B> f) {
+			return f.apply(a);
+		}
+
+		@Override
+		public long foldLong(LongSupplier none, LongUnaryOperator f) {
+			return f.applyAsLong(a);
+		}
+
+		@Override
+		public long getOrElse(LongSupplier def){
+			return a;
+		}
+
+		@Override
+		public OptionLong ifEmpty(LongSupplier ifEmpty) {
+			return this;
+		}
+
+		@Override
+		public OptionLong or(Supplier<? extends OptionLong> optionSupplier) {
+			return this;
+		}
+
+		@Override
+		public long unsafeGet() throws Exception {
+			return a;
+		}
+
+		@Override
+		public OptionLong peek(Runnable ifNone, LongConsumer ifSome) {
+			ifSome.accept(a);
+			return this;
+		}
+
+		@Override
+		public LongStream stream() {
+			return LongStream.of(a);
+		}
+
+		@Override
+		public Option<Long> toOption() {
+			return Option.of(a);
+		}
+
+		@Override
+		public OptionalLong toOptional() {
+			return OptionalLong.of(a);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Some)) return false;
+
+			Some some = (Some) o;
+
+			return Long.compare(a, some.a) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(a);
+		}
+
+		@Override
+		public String toString() {
+			return "Some("+a+")";
+		}
+	}
+
+	public static final class None extends OptionLong {
+		private None(){}
+
+		@Override
+		public boolean isSome() {
+			return false;
+		}
+
+		@Override
+		public boolean isNone() {
+			return true;
+		}
+
+		@Override
+		public OptionLong filter(LongPredicate p){
+			return this;
+		}
+
+		@Override
+		public OptionLong map(LongUnaryOperator f) {
+			return this;
+		}
+
+		@Override
+		public OptionInt mapToInt(LongToIntFunction f) {
+			return OptionInt.none();
+		}
+
+		@Override
+		public OptionDouble mapToDouble(LongToDoubleFunction f) {
+			return OptionDouble.none();
+		}
+
+		@Override
+		public <B> Option<B> mapToObj(LongFunction<? extends B> f) {
+			return Option.none();
+		}
+
+		@Override
+		public OptionLong flatMap(LongFunction<? extends OptionLong> f) {
+			return this;
+		}
+
+		@Override
+		public <B> B fold(Supplier<? extends B> none, LongFunction<? extends B> f) {
+			return none.get();
+		}
+
+		@Override
+		public long foldLong(LongSupplier none, LongUnaryOperator f) {
+			return none.getAsLong();
+		}
+
+		@Override
+		public long getOrElse(LongSupplier def){
+			return def.getAsLong();
+		}
+
+		@Override
+		public OptionLong ifEmpty(LongSupplier ifEmpty) {
+			return OptionLong.of(ifEmpty.getAsLong());
+		}
+
+		@Override
+		public OptionLong or(Supplier<? extends OptionLong> optionSupplier) {
+			return optionSupplier.get();
+		}
+
+		@Override
+		public long unsafeGet() throws Exception {
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public OptionLong peek(Runnable ifNone, LongConsumer ifSome) {
+			ifNone.run();
+			return this;
+		}
+
+		@Override
+		public LongStream stream() {
+			return LongStream.empty();
+		}
+
+		@Override
+		public Option<Long> toOption() {
+			return Option.none();
+		}
+
+		@Override
+		public OptionalLong toOptional() {
+			return OptionalLong.empty();
+		}
+
+		@Override
+		public String toString() {
+			return "None";
+		}
+	}
+}
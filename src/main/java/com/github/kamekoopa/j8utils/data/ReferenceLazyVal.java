@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.utils.SE;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+public class ReferenceLazyVal<A> {
+
+	private static final Object NULL = new Object();
+
+	private final Object lock = new Object();
+
+	private final SE<? extends A> supplier;
+	private final BiFunction<Object, ReferenceQueue<Object>, Reference<Object>> referenceFactory;
+	private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+	private final LongAdder reclaimCount = new LongAdder();
+	private final LongAdder recomputeCount = new LongAdder();
+
+	private volatile Reference<Object> reference = null;
+
+	private ReferenceLazyVal(
+		SE<? extends A> supplier,
+		BiFunction<Object, ReferenceQueue<Object>, Reference<Object>> referenceFactory
+	) {
+		this.supplier = supplier;
+		this.referenceFactory = referenceFactory;
+	}
+
+	public static <A> ReferenceLazyVal<A> soft(SE<? extends A> supplier) {
+		return new ReferenceLazyVal<>(supplier, SoftReference::new);
+	}
+
+	public static <A> ReferenceLazyVal<A> weak(SE<? extends A> supplier) {
+		return new ReferenceLazyVal<>(supplier, WeakReference::new);
+	}
+
+	public A get() {
+
+		try {
+			return gete();
+		}catch(RuntimeException e){
+			throw e;
+		}catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public A gete() throws Exception {
+
+		Object value = referent(reference);
+		if (value != null) {
+			return unmask(value);
+		}
+
+		synchronized (lock) {
+			Reference<Object> current = reference;
+			value = referent(current);
+			if (value == null) {
+				A computed = supplier.get();
+				value = computed == null ? NULL : computed;
+				if (current != null) {
+					recomputeCount.increment();
+				}
+				this.reference = referenceFactory.apply(value, queue);
+			}
+		}
+
+		drainQueue();
+		return unmask(value);
+	}
+
+	public boolean isAvailable() {
+		return referent(reference) != null;
+	}
+
+	public long reclaimCount() {
+		drainQueue();
+		return reclaimCount.sum();
+	}
+
+	public long recomputeCount() {
+		return recomputeCount.sum();
+	}
+
+	private void drainQueue() {
+		while (queue.poll() != null) {
+			reclaimCount.increment();
+		}
+	}
+
+	private static Object referent(Reference<Object> reference) {
+		return reference == null ? null : reference.get();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A> A unmask(Object value) {
+		return value == NULL ? null : (A) value;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+public abstract class StackTracePolicy {
+
+	private static final StackTracePolicy always = new StackTracePolicy() {
+		@Override
+		public boolean capture() {
+			return true;
+		}
+	};
+
+	private static final StackTracePolicy never = new StackTracePolicy() {
+		@Override
+		public boolean capture() {
+			return false;
+		}
+	};
+
+	private static volatile StackTracePolicy global = always;
+
+	public static StackTracePolicy always() {
+		return always;
+	}
+
+	public static StackTracePolicy never() {
+		return never;
+	}
+
+	public static StackTracePolicy sampled(double rate) {
+
+		if (rate < 0.0 || rate > 1.0) {
+			throw new IllegalArgumentException("rate must be between 0.0 and 1.0: " + rate);
+		}
+
+		return new StackTracePolicy() {
+			@Override
+			public boolean capture() {
+				return ThreadLocalRandom.current().nextDouble() < rate;
+			}
+		};
+	}
+
+	public static StackTracePolicy global() {
+		return global;
+	}
+
+	public static void setGlobal(StackTracePolicy policy) {
+		global = Objects.requireNonNull(policy);
+	}
+
+	public abstract boolean capture();
+
+	public RuntimeException exception(String message) {
+		// スタックトレースを取るときは、軽量化のための型と紛れないよう通常の例外にする
+		return capture() ? new RuntimeException(message) : new StacklessException(message);
+	}
+}
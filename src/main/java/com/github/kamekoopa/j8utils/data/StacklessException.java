@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+public class StacklessException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public StacklessException(String message) {
+		this(message, null);
+	}
+
+	public StacklessException(String message, Throwable cause) {
+		this(message, cause, false);
+	}
+
+	protected StacklessException(String message, Throwable cause, boolean writableStackTrace) {
+		super(message, cause, false, writableStackTrace);
+	}
+}
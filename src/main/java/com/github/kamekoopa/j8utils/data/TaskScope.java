@@ -0,0 +1,285 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.data;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+public final class TaskScope<A> implements AutoCloseable {
+
+	public enum Policy {
+		FAIL_FAST, WAIT_ALL
+	}
+
+	private final FutureBuilder builder;
+	private final Policy policy;
+	private final int maxConcurrency;
+
+	private final List<Child<A>> children = new ArrayList<>();
+	private final Queue<Child<A>> waiting = new ArrayDeque<>();
+	private int running = 0;
+	private boolean closed = false;
+	private Try<List<A>> result = null;
+
+	private final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+
+	private TaskScope(FutureBuilder builder, Policy policy, int maxConcurrency) {
+		this.builder = builder;
+		this.policy = policy;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public static <A> TaskScope<A> open(FutureBuilder builder) {
+		return builder(builder).open();
+	}
+
+	public static Builder builder(FutureBuilder builder) {
+		return new Builder(Objects.requireNonNull(builder));
+	}
+
+	public FutureBuilder.Future<A> fork(Supplier<? extends A> supplier) {
+
+		Objects.requireNonNull(supplier);
+
+		Child<A> child = new Child<>(supplier);
+		boolean start;
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("scope is already closed");
+			}
+			children.add(child);
+
+			start = running < maxConcurrency;
+			if (start) {
+				running++;
+			} else {
+				waiting.add(child);
+			}
+		}
+
+		if (policy == Policy.FAIL_FAST && firstFailure.get() != null) {
+			cancel(child);
+		}
+		if (start) {
+			start(child);
+		}
+
+		// 呼び出し元からの取り消しも子の失敗として扱う
+		return builder.from(child.slot).onCancel(() -> cancel(child));
+	}
+
+	public Try<List<A>> join() throws InterruptedException {
+
+		List<Child<A>> snapshot;
+		synchronized (this) {
+			if (result != null) {
+				return result;
+			}
+			this.closed = true;
+			snapshot = new ArrayList<>(children);
+		}
+
+		CompletableFuture<?>[] slots = new CompletableFuture<?>[snapshot.size()];
+		CompletableFuture<?>[] terminations = new CompletableFuture<?>[snapshot.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = snapshot.get(i).slot;
+			terminations[i] = snapshot.get(i).terminated;
+		}
+
+		try {
+			CompletableFuture.allOf(slots).get();
+		} catch (ExecutionException | CancellationException e) {
+			// 個々の失敗は firstFailure に記録されている
+		} catch (InterruptedException e) {
+			cancelAll();
+			throw e;
+		}
+
+		// 取り消された子も、割り込みを無視して走り続けている間は待つ
+		try {
+			CompletableFuture.allOf(terminations).get();
+		} catch (ExecutionException e) {
+			// 終了の通知は正常にしか完了しない
+		} catch (InterruptedException e) {
+			cancelAll();
+			throw e;
+		}
+
+		Exception failure = firstFailure.get();
+		Try<List<A>> joined;
+		if (failure != null) {
+			joined = Try.failure(failure);
+		} else {
+			List<A> values = new ArrayList<>(snapshot.size());
+			for (Child<A> child : snapshot) {
+				values.add(child.slot.join());
+			}
+			joined = Try.success(values);
+		}
+
+		synchronized (this) {
+			this.result = joined;
+		}
+		return joined;
+	}
+
+	public void cancel() {
+		if (firstFailure.compareAndSet(null, new CancellationException("scope cancelled"))) {
+			cancelAll();
+		}
+	}
+
+	@Override
+	public void close() {
+
+		synchronized (this) {
+			if (result != null) {
+				return;
+			}
+		}
+
+		try {
+			join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void start(Child<A> child) {
+
+		if (child.slot.isDone()) {
+			child.terminated.complete(null);
+			release();
+			return;
+		}
+
+		FutureBuilder.Future<A> future = builder.run(child.supplier, () -> child.terminated.complete(null));
+		child.running = future;
+		if (child.slot.isDone()) {
+			future.cancel();
+		}
+
+		future.onComplete(t -> finished(child, t));
+	}
+
+	private void finished(Child<A> child, Try<A> t) {
+
+		t.peek(child.slot::complete, e -> {
+			failed(e);
+			child.slot.completeExceptionally(e);
+		});
+
+		release();
+	}
+
+	private void release() {
+
+		Child<A> next;
+		synchronized (this) {
+			// 待機中に取り消された子は開始しない
+			while ((next = waiting.poll()) != null && next.slot.isDone()) {
+				next.terminated.complete(null);
+			}
+
+			if (next == null) {
+				running--;
+			}
+		}
+
+		if (next != null) {
+			start(next);
+		}
+	}
+
+	private void failed(Exception e) {
+		if (firstFailure.compareAndSet(null, e) && policy == Policy.FAIL_FAST) {
+			cancelAll();
+		}
+	}
+
+	private void cancel(Child<A> child) {
+
+		FutureBuilder.Future<A> future = child.running;
+		if (future != null) {
+			future.cancel();
+		} else if (child.slot.cancel(false)) {
+			failed(new CancellationException());
+		}
+	}
+
+	private void cancelAll() {
+
+		List<Child<A>> snapshot;
+		synchronized (this) {
+			snapshot = new ArrayList<>(children);
+		}
+
+		for (Child<A> child : snapshot) {
+			cancel(child);
+		}
+	}
+
+
+	private static final class Child<A> {
+
+		private final Supplier<? extends A> supplier;
+		private final CompletableFuture<A> slot = new CompletableFuture<>();
+		private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+		private volatile FutureBuilder.Future<A> running = null;
+
+		private Child(Supplier<? extends A> supplier) {
+			this.supplier = supplier;
+		}
+	}
+
+	public static class Builder {
+
+		private final FutureBuilder futureBuilder;
+		private Policy policy = Policy.FAIL_FAST;
+		private int maxConcurrency = Integer.MAX_VALUE;
+
+		private Builder(FutureBuilder futureBuilder) {
+			this.futureBuilder = futureBuilder;
+		}
+
+		public Builder policy(Policy policy) {
+			this.policy = Objects.requireNonNull(policy);
+			return this;
+		}
+
+		public Builder maxConcurrency(int maxConcurrency) {
+			if (maxConcurrency <= 0) {
+				throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+			}
+			this.maxConcurrency = maxConcurrency;
+			return this;
+		}
+
+		public <A> TaskScope<A> open() {
+			return new TaskScope<>(futureBuilder, policy, maxConcurrency);
+		}
+	}
+}
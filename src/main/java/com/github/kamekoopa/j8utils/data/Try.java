@@ -38,6 +38,14 @@ public abstract class Try<A> {
 		return new Failure<>(e);
 	}
 
+	public static <A> Failure<A> failureOf(String message){
+		return failureOf(message, StackTracePolicy.global());
+	}
+
+	public static <A> Failure<A> failureOf(String message, StackTracePolicy policy){
+		return new Failure<>(policy.exception(message));
+	}
+
 	public abstract Try<A> filter(Predicate<? super A> p, Supplier<Exception> s);
 
 	public abstract <B> Try<B> map(Function<? super A, ? extends B> f);
@@ -186,22 +194,22 @@ public abstract class Try<A> {
 
 		@Override
 		public <B> Try<B> map(Function<? super A, ? extends B> f) {
-			return new Failure<>(e);
+			return cast();
 		}
 
 		@Override
 		public <B> Try<B> mape(FE1<? super A, ? extends B> f) throws Exception {
-			return new Failure<>(e);
+			return cast();
 		}
 
 		@Override
 		public <B> Try<B> failableMap(FE1<? super A, ? extends B> f) {
-			return new Failure<>(e);
+			return cast();
 		}
 
 		@Override
 		public <B> Try<B> flatMap(Function<? super A, ? extends Try<? extends B>> f) {
-			return new Failure<>(e);
+			return cast();
 		}
 
 		@Override
@@ -234,5 +242,10 @@ public abstract class Try<A> {
 			ifFailure.accept(e);
 			return this;
 		}
+
+		@SuppressWarnings("unchecked")
+		private <B> Try<B> cast() {
+			return (Try<B>) (Try<?>) this;
+		}
 	}
 }
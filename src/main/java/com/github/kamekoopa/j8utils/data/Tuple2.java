@@ -18,6 +18,7 @@ package com.github.kamekoopa.j8utils.data;
 
 import com.github.kamekoopa.j8utils.utils.FE1;
 
+import java.util.Objects;
 import java.util.function.Function;
 
 public final class Tuple2<A, B> {
@@ -56,14 +57,14 @@ public final class Tuple2<A, B> {
 		if (!(o instanceof Tuple2)) return false;
 
 		Tuple2 tuple2 = (Tuple2) o;
-		return _1.equals(tuple2._1) && _2.equals(tuple2._2);
+		return Objects.equals(_1, tuple2._1) && Objects.equals(_2, tuple2._2);
 
 	}
 
 	@Override
 	public int hashCode() {
-		int result = _1.hashCode();
-		result = 31 * result + _2.hashCode();
+		int result = Objects.hashCode(_1);
+		result = 31 * result + Objects.hashCode(_2);
 		return result;
 	}
 
@@ -18,6 +18,7 @@ package com.github.kamekoopa.j8utils.data;
 
 import com.github.kamekoopa.j8utils.utils.FE1;
 
+import java.util.Objects;
 import java.util.function.Function;
 
 public final class Tuple3<A, B, C> {
@@ -67,14 +68,14 @@ public final class Tuple3<A, B, C> {
 
 		Tuple3 tuple3 = (Tuple3) o;
 
-		return _1.equals(tuple3._1) && _2.equals(tuple3._2) && _3.equals(tuple3._3);
+		return Objects.equals(_1, tuple3._1) && Objects.equals(_2, tuple3._2) && Objects.equals(_3, tuple3._3);
 	}
 
 	@Override
 	public int hashCode() {
-		int result = _1.hashCode();
-		result = 31 * result + _2.hashCode();
-		result = 31 * result + _3.hashCode();
+		int result = Objects.hashCode(_1);
+		result = 31 * result + Objects.hashCode(_2);
+		result = 31 * result + Objects.hashCode(_3);
 		return result;
 	}
 
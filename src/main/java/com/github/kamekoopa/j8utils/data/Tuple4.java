@@ -16,6 +16,8 @@
 
 package com.github.kamekoopa.j8utils.data;
 
+import java.util.Objects;
+
 public final class Tuple4<A, B, C, D> {
 
 	public final A _1;
@@ -41,15 +43,15 @@ public final class Tuple4<A, B, C, D> {
 
 		Tuple4 tuple3 = (Tuple4) o;
 
-		return _1.equals(tuple3._1) && _2.equals(tuple3._2) && _3.equals(tuple3._3) && _4.equals(tuple3._4);
+		return Objects.equals(_1, tuple3._1) && Objects.equals(_2, tuple3._2) && Objects.equals(_3, tuple3._3) && Objects.equals(_4, tuple3._4);
 	}
 
 	@Override
 	public int hashCode() {
-		int result = _1.hashCode();
-		result = 31 * result + _2.hashCode();
-		result = 31 * result + _3.hashCode();
-		result = 31 * result + _4.hashCode();
+		int result = Objects.hashCode(_1);
+		result = 31 * result + Objects.hashCode(_2);
+		result = 31 * result + Objects.hashCode(_3);
+		result = 31 * result + Objects.hashCode(_4);
 		return result;
 	}
 
@@ -16,6 +16,8 @@
 
 package com.github.kamekoopa.j8utils.data;
 
+import java.util.Objects;
+
 public final class Tuple5<A, B, C, D, E> {
 
 	public final A _1;
@@ -43,16 +45,16 @@ public final class Tuple5<A, B, C, D, E> {
 
 		Tuple5 tuple3 = (Tuple5) o;
 
-		return _1.equals(tuple3._1) && _2.equals(tuple3._2) && _3.equals(tuple3._3) && _4.equals(tuple3._4) && _5.equals(tuple3._5);
+		return Objects.equals(_1, tuple3._1) && Objects.equals(_2, tuple3._2) && Objects.equals(_3, tuple3._3) && Objects.equals(_4, tuple3._4) && Objects.equals(_5, tuple3._5);
 	}
 
 	@Override
 	public int hashCode() {
-		int result = _1.hashCode();
-		result = 31 * result + _2.hashCode();
-		result = 31 * result + _3.hashCode();
-		result = 31 * result + _4.hashCode();
-		result = 31 * result + _5.hashCode();
+		int result = Objects.hashCode(_1);
+		result = 31 * result + Objects.hashCode(_2);
+		result = 31 * result + Objects.hashCode(_3);
+		result = 31 * result + Objects.hashCode(_4);
+		result = 31 * result + Objects.hashCode(_5);
 		return result;
 	}
 
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class Budget {
+
+	private static final long SCALE = 1000;
+
+	private final long depositPerCall;
+	private final long capacity;
+	private final AtomicLong balance;
+
+	Budget(double ratio, int burst) {
+
+		if (ratio < 0 || ratio > 1) {
+			throw new IllegalArgumentException("ratio must be in [0, 1]: " + ratio);
+		}
+		if (burst < 0) {
+			throw new IllegalArgumentException("burst must not be negative: " + burst);
+		}
+
+		this.depositPerCall = Math.round(ratio * SCALE);
+		this.capacity = Math.max(burst, 1) * SCALE;
+		this.balance = new AtomicLong(burst * SCALE);
+	}
+
+	void deposit() {
+
+		if (depositPerCall == 0) {
+			return;
+		}
+
+		for (;;) {
+			long current = balance.get();
+			if (current >= capacity) {
+				return;
+			}
+			if (balance.compareAndSet(current, Math.min(capacity, current + depositPerCall))) {
+				return;
+			}
+		}
+	}
+
+	boolean tryWithdraw() {
+
+		for (;;) {
+			long current = balance.get();
+			if (current < SCALE) {
+				return false;
+			}
+			if (balance.compareAndSet(current, current - SCALE)) {
+				return true;
+			}
+		}
+	}
+
+	long available() {
+		return balance.get() / SCALE;
+	}
+}
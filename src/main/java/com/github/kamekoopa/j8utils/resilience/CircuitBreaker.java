@@ -0,0 +1,323 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+import com.github.kamekoopa.j8utils.data.Try;
+import com.github.kamekoopa.j8utils.utils.SE;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private final String name;
+	private final double failureRateThreshold;
+	private final double slowCallRateThreshold;
+	private final long slowCallNanos;
+	private final int windowSize;
+	private final int minimumCalls;
+	private final long openNanos;
+	private final int halfOpenCalls;
+	private final LongSupplier ticker;
+	private final Predicate<? super Exception> recordOn;
+
+	// スタックトレースも抑制例外も持たないので、使い回しても安全
+	private final CallNotPermittedException notPermitted;
+
+	private final AtomicReference<Phase> phase;
+	private final LongAdder notPermittedCount = new LongAdder();
+
+	private CircuitBreaker(Builder builder) {
+		this.name = builder.name;
+		this.failureRateThreshold = builder.failureRateThreshold;
+		this.slowCallRateThreshold = builder.slowCallRateThreshold;
+		this.slowCallNanos = builder.slowCallNanos;
+		this.windowSize = builder.windowSize;
+		this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+		this.openNanos = builder.openNanos;
+		this.halfOpenCalls = builder.halfOpenCalls;
+		this.ticker = builder.ticker;
+		this.recordOn = builder.recordOn;
+		this.notPermitted = new CallNotPermittedException("CircuitBreaker '" + name + "' does not permit further calls");
+		this.phase = new AtomicReference<>(closed());
+	}
+
+	public static Builder builder(String name) {
+		return new Builder(Objects.requireNonNull(name));
+	}
+
+	public <A> Try<A> call(SE<? extends A> supplier) {
+
+		Objects.requireNonNull(supplier);
+
+		Phase acquired = acquire();
+		if (acquired == null) {
+			return Try.failure(notPermitted);
+		}
+
+		long start = ticker.getAsLong();
+		Try<A> result = Try.of(supplier);
+		completed(acquired, result, ticker.getAsLong() - start);
+
+		return result;
+	}
+
+	public <A> FutureBuilder.Future<A> run(FutureBuilder builder, Supplier<? extends A> supplier) {
+
+		Objects.requireNonNull(supplier);
+
+		Phase acquired = acquire();
+		if (acquired == null) {
+			CompletableFuture<A> rejected = new CompletableFuture<>();
+			rejected.completeExceptionally(notPermitted);
+			return builder.from(rejected);
+		}
+
+		long start = ticker.getAsLong();
+		return builder.<A>run(supplier).onComplete(t -> completed(acquired, t, ticker.getAsLong() - start));
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public State state() {
+		return phase.get().state;
+	}
+
+	public double failureRate() {
+		return phase.get().window.failureRate();
+	}
+
+	public double slowCallRate() {
+		return phase.get().window.slowCallRate();
+	}
+
+	public long notPermittedCount() {
+		return notPermittedCount.sum();
+	}
+
+	public void reset() {
+		phase.set(closed());
+	}
+
+	private Phase acquire() {
+
+		for (;;) {
+			Phase current = phase.get();
+			switch (current.state) {
+				case CLOSED:
+					return current;
+
+				case OPEN:
+					if (ticker.getAsLong() - current.openedAt < openNanos) {
+						notPermittedCount.increment();
+						return null;
+					}
+					phase.compareAndSet(current, halfOpen());
+					break;
+
+				case HALF_OPEN:
+					if (tryTakePermit(current.permits)) {
+						return current;
+					}
+					notPermittedCount.increment();
+					return null;
+			}
+		}
+	}
+
+	private void completed(Phase acquired, Try<?> result, long elapsedNanos) {
+
+		Option<Exception> failure = result.fold(v -> Option.none(), Option::of);
+
+		// 取り消しは呼び出し側の都合なので、結果として数えない
+		if (failure.fold(() -> false, e -> e instanceof CancellationException)) {
+			if (acquired.permits != null) {
+				acquired.permits.incrementAndGet();
+			}
+			return;
+		}
+
+		int outcome = failure.fold(() -> false, recordOn::test) ? OutcomeWindow.FAILURE : OutcomeWindow.SUCCESS;
+		if (elapsedNanos >= slowCallNanos) {
+			outcome |= OutcomeWindow.SLOW;
+		}
+
+		// 状態が変わった後に完了した呼び出しは、新しい状態の集計に混ぜない
+		if (phase.get() != acquired) {
+			return;
+		}
+
+		int calls = acquired.window.record(outcome);
+		if (acquired.state == State.CLOSED) {
+			if (calls >= minimumCalls && exceeded(acquired.window)) {
+				phase.compareAndSet(acquired, open(acquired.window));
+			}
+		} else if (acquired.state == State.HALF_OPEN && calls >= halfOpenCalls) {
+			phase.compareAndSet(acquired, exceeded(acquired.window) ? open(acquired.window) : closed());
+		}
+	}
+
+	private boolean exceeded(OutcomeWindow window) {
+		return window.failureRate() >= failureRateThreshold || window.slowCallRate() >= slowCallRateThreshold;
+	}
+
+	private static boolean tryTakePermit(AtomicInteger permits) {
+		for (;;) {
+			int current = permits.get();
+			if (current <= 0) {
+				return false;
+			}
+			if (permits.compareAndSet(current, current - 1)) {
+				return true;
+			}
+		}
+	}
+
+	private Phase closed() {
+		return new Phase(State.CLOSED, new OutcomeWindow(windowSize), 0, null);
+	}
+
+	private Phase open(OutcomeWindow window) {
+		return new Phase(State.OPEN, window, ticker.getAsLong(), null);
+	}
+
+	private Phase halfOpen() {
+		return new Phase(State.HALF_OPEN, new OutcomeWindow(halfOpenCalls), 0, new AtomicInteger(halfOpenCalls));
+	}
+
+
+	private static final class Phase {
+
+		private final State state;
+		private final OutcomeWindow window;
+		private final long openedAt;
+		private final AtomicInteger permits;
+
+		private Phase(State state, OutcomeWindow window, long openedAt, AtomicInteger permits) {
+			this.state = state;
+			this.window = window;
+			this.openedAt = openedAt;
+			this.permits = permits;
+		}
+	}
+
+	public static class Builder {
+
+		private final String name;
+		private double failureRateThreshold = 0.5;
+		private double slowCallRateThreshold = 1.0;
+		private long slowCallNanos = TimeUnit.SECONDS.toNanos(60);
+		private int windowSize = 100;
+		private int minimumCalls = 100;
+		private long openNanos = TimeUnit.SECONDS.toNanos(60);
+		private int halfOpenCalls = 10;
+		private LongSupplier ticker = System::nanoTime;
+		private Predicate<? super Exception> recordOn = e -> true;
+
+		private Builder(String name) {
+			this.name = name;
+		}
+
+		public Builder failureRateThreshold(double threshold) {
+			this.failureRateThreshold = rate(threshold);
+			return this;
+		}
+
+		public Builder slowCallRateThreshold(double threshold) {
+			this.slowCallRateThreshold = rate(threshold);
+			return this;
+		}
+
+		public Builder slowCallDuration(long duration, TimeUnit unit) {
+			if (duration <= 0) {
+				throw new IllegalArgumentException("duration must be positive: " + duration);
+			}
+			this.slowCallNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		public Builder windowSize(int windowSize) {
+			if (windowSize <= 0) {
+				throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+			}
+			this.windowSize = windowSize;
+			return this;
+		}
+
+		public Builder minimumCalls(int minimumCalls) {
+			if (minimumCalls <= 0) {
+				throw new IllegalArgumentException("minimumCalls must be positive: " + minimumCalls);
+			}
+			this.minimumCalls = minimumCalls;
+			return this;
+		}
+
+		public Builder waitDurationInOpen(long duration, TimeUnit unit) {
+			if (duration < 0) {
+				throw new IllegalArgumentException("duration must not be negative: " + duration);
+			}
+			this.openNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		public Builder permittedCallsInHalfOpen(int calls) {
+			if (calls <= 0) {
+				throw new IllegalArgumentException("calls must be positive: " + calls);
+			}
+			this.halfOpenCalls = calls;
+			return this;
+		}
+
+		public Builder ticker(LongSupplier ticker) {
+			this.ticker = Objects.requireNonNull(ticker);
+			return this;
+		}
+
+		public Builder recordOn(Predicate<? super Exception> recordOn) {
+			this.recordOn = Objects.requireNonNull(recordOn);
+			return this;
+		}
+
+		public CircuitBreaker build() {
+			return new CircuitBreaker(this);
+		}
+
+		private static double rate(double threshold) {
+			if (threshold <= 0 || threshold > 1) {
+				throw new IllegalArgumentException("threshold must be in (0, 1]: " + threshold);
+			}
+			return threshold;
+		}
+	}
+}
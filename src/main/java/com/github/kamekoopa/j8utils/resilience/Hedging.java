@@ -0,0 +1,258 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import com.github.kamekoopa.j8utils.concurrent.TimerWheel;
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+import com.github.kamekoopa.j8utils.data.Try;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class Hedging {
+
+	private final FutureBuilder builder;
+	private final TimerWheel timer;
+	private final long delayNanos;
+	private final Option<LatencyTracker> tracker;
+	private final Budget budget;
+
+	private final LongAdder callCount = new LongAdder();
+	private final LongAdder hedgesFired = new LongAdder();
+	private final LongAdder hedgesWon = new LongAdder();
+
+	private Hedging(Builder builder) {
+		this.builder = builder.futureBuilder;
+		this.timer = builder.timer;
+		this.delayNanos = builder.delayNanos;
+		this.tracker = builder.percentile < 0
+			? Option.none()
+			: Option.of(new LatencyTracker(builder.percentile, builder.minSamples));
+		this.budget = new Budget(builder.maxExtraLoad, builder.burst);
+	}
+
+	public static Builder builder(FutureBuilder futureBuilder) {
+		return new Builder(Objects.requireNonNull(futureBuilder));
+	}
+
+	public <A> FutureBuilder.Future<A> run(Supplier<? extends A> supplier) {
+
+		Objects.requireNonNull(supplier);
+
+		callCount.increment();
+		budget.deposit();
+
+		Call<A> call = new Call<>(supplier);
+		call.start(false);
+
+		TimerWheel.Timeout timeout = timer.schedule(call::hedge, currentDelayNanos(), TimeUnit.NANOSECONDS);
+		call.result.whenComplete((v, e) -> timeout.cancel());
+
+		return builder.from(call.result).onCancel(() -> {
+			timeout.cancel();
+			call.cancelAll();
+		});
+	}
+
+	public long currentDelayNanos() {
+		return tracker.fold(() -> delayNanos, t -> t.percentileNanos(delayNanos));
+	}
+
+	public long callCount() {
+		return callCount.sum();
+	}
+
+	public long hedgesFired() {
+		return hedgesFired.sum();
+	}
+
+	public long hedgesWon() {
+		return hedgesWon.sum();
+	}
+
+
+	private final class Call<A> {
+
+		private final Supplier<? extends A> supplier;
+		private final CompletableFuture<A> result = new CompletableFuture<>();
+		private final AtomicInteger outstanding = new AtomicInteger(1);
+
+		private volatile FutureBuilder.Future<A> primary;
+		private volatile FutureBuilder.Future<A> hedge;
+
+		private Call(Supplier<? extends A> supplier) {
+			this.supplier = supplier;
+		}
+
+		private void start(boolean isHedge) {
+
+			long start = System.nanoTime();
+			FutureBuilder.Future<A> attempt = builder.run(supplier);
+			if (isHedge) {
+				this.hedge = attempt;
+			} else {
+				this.primary = attempt;
+			}
+
+			attempt.onComplete(t -> completed(t, isHedge, start));
+
+			// 開始前に決着していた場合は、この試行が負けになる
+			if (result.isDone()) {
+				attempt.cancel();
+			}
+		}
+
+		private void hedge() {
+
+			if (result.isDone() || !acquireOutstanding()) {
+				return;
+			}
+
+			if (!budget.tryWithdraw()) {
+				release(null);
+				return;
+			}
+
+			hedgesFired.increment();
+			start(true);
+		}
+
+		private boolean acquireOutstanding() {
+			for (;;) {
+				int current = outstanding.get();
+				if (current == 0) {
+					return false;
+				}
+				if (outstanding.compareAndSet(current, current + 1)) {
+					return true;
+				}
+			}
+		}
+
+		private void completed(Try<A> t, boolean isHedge, long start) {
+
+			if (t.isSuccess()) {
+				A value = t.fold(v -> v, e -> null);
+				tracker.peek(() -> {}, tr -> tr.record(System.nanoTime() - start));
+				if (result.complete(value)) {
+					if (isHedge) {
+						hedgesWon.increment();
+					}
+					cancelLosers(isHedge);
+				}
+				return;
+			}
+
+			release(t.fold(v -> null, e -> e));
+		}
+
+		private void release(Exception failure) {
+			// 全ての試行が失敗した時点で、最後の失敗を結果とする
+			if (outstanding.decrementAndGet() == 0) {
+				result.completeExceptionally(failure != null ? failure : new IllegalStateException("no attempt succeeded"));
+			}
+		}
+
+		private void cancelLosers(boolean winnerIsHedge) {
+			FutureBuilder.Future<A> loser = winnerIsHedge ? primary : hedge;
+			if (loser != null) {
+				loser.cancel();
+			}
+		}
+
+		private void cancelAll() {
+			FutureBuilder.Future<A> p = primary;
+			FutureBuilder.Future<A> h = hedge;
+			if (p != null) {
+				p.cancel();
+			}
+			if (h != null) {
+				h.cancel();
+			}
+		}
+	}
+
+	public static class Builder {
+
+		private final FutureBuilder futureBuilder;
+		private TimerWheel timer = TimerWheel.shared();
+		private long delayNanos = TimeUnit.MILLISECONDS.toNanos(50);
+		private double percentile = -1;
+		private int minSamples = 100;
+		private double maxExtraLoad = 0.1;
+		private int burst = 10;
+
+		private Builder(FutureBuilder futureBuilder) {
+			this.futureBuilder = futureBuilder;
+		}
+
+		public Builder delay(long duration, TimeUnit unit) {
+			if (duration < 0) {
+				throw new IllegalArgumentException("duration must not be negative: " + duration);
+			}
+			this.delayNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		public Builder percentileDelay(double percentile) {
+			return percentileDelay(percentile, minSamples);
+		}
+
+		public Builder percentileDelay(double percentile, int minSamples) {
+			if (percentile <= 0 || percentile > 1) {
+				throw new IllegalArgumentException("percentile must be in (0, 1]: " + percentile);
+			}
+			if (minSamples <= 0) {
+				throw new IllegalArgumentException("minSamples must be positive: " + minSamples);
+			}
+			this.percentile = percentile;
+			this.minSamples = minSamples;
+			return this;
+		}
+
+		public Builder maxExtraLoad(double ratio) {
+			if (ratio < 0 || ratio > 1) {
+				throw new IllegalArgumentException("ratio must be in [0, 1]: " + ratio);
+			}
+			this.maxExtraLoad = ratio;
+			return this;
+		}
+
+		public Builder burst(int burst) {
+			if (burst < 0) {
+				throw new IllegalArgumentException("burst must not be negative: " + burst);
+			}
+			this.burst = burst;
+			return this;
+		}
+
+		public Builder timer(TimerWheel timer) {
+			this.timer = Objects.requireNonNull(timer);
+			return this;
+		}
+
+		public Hedging build() {
+			return new Hedging(this);
+		}
+	}
+}
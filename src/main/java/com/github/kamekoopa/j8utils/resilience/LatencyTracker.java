@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class LatencyTracker {
+
+	private static final int SIZE = 1024;
+	private static final int MASK = SIZE - 1;
+	private static final int RECOMPUTE_INTERVAL = 64;
+
+	private final double percentile;
+	private final int minSamples;
+
+	private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+	private final AtomicLong recorded = new AtomicLong();
+
+	private volatile long cached = -1;
+
+	LatencyTracker(double percentile, int minSamples) {
+
+		if (percentile <= 0 || percentile > 1) {
+			throw new IllegalArgumentException("percentile must be in (0, 1]: " + percentile);
+		}
+
+		this.percentile = percentile;
+		this.minSamples = Math.max(1, Math.min(minSamples, SIZE));
+	}
+
+	void record(long nanos) {
+
+		long n = recorded.getAndIncrement();
+		samples.lazySet((int) (n & MASK), nanos);
+
+		// ソートは重いので、一定件数ごとに記録したスレッドがまとめて計算する
+		long count = n + 1;
+		if (count >= minSamples && (count == minSamples || count % RECOMPUTE_INTERVAL == 0)) {
+			recompute((int) Math.min(count, SIZE));
+		}
+	}
+
+	long percentileNanos(long fallback) {
+		long value = cached;
+		return value < 0 ? fallback : value;
+	}
+
+	private void recompute(int count) {
+
+		long[] copy = new long[count];
+		for (int i = 0; i < count; i++) {
+			copy[i] = samples.get(i);
+		}
+		Arrays.sort(copy);
+
+		int index = (int) Math.ceil(percentile * count) - 1;
+		this.cached = copy[Math.max(0, Math.min(index, count - 1))];
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class OutcomeWindow {
+
+	static final int SUCCESS = 0;
+	static final int FAILURE = 1;
+	static final int SLOW = 2;
+
+	private final int size;
+	private final AtomicIntegerArray slots;
+	private final AtomicLong recorded = new AtomicLong();
+	private final AtomicInteger failures = new AtomicInteger();
+	private final AtomicInteger slows = new AtomicInteger();
+
+	OutcomeWindow(int size) {
+		this.size = size;
+		this.slots = new AtomicIntegerArray(size);
+	}
+
+	int record(int outcome) {
+
+		long n = recorded.getAndIncrement();
+
+		// 入れ替えた古い結果との差分だけを集計に反映するので、集計は常にスロットの内容と一致する
+		int old = slots.getAndSet((int) (n % size), outcome);
+		int failureDelta = (outcome & FAILURE) - (old & FAILURE);
+		int slowDelta = ((outcome & SLOW) - (old & SLOW)) >> 1;
+		if (failureDelta != 0) {
+			failures.addAndGet(failureDelta);
+		}
+		if (slowDelta != 0) {
+			slows.addAndGet(slowDelta);
+		}
+
+		return (int) Math.min(n + 1, size);
+	}
+
+	int calls() {
+		return (int) Math.min(recorded.get(), size);
+	}
+
+	double failureRate() {
+		int calls = calls();
+		return calls == 0 ? 0.0 : (double) failures.get() / calls;
+	}
+
+	double slowCallRate() {
+		int calls = calls();
+		return calls == 0 ? 0.0 : (double) slows.get() / calls;
+	}
+}
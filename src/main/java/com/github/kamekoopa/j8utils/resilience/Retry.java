@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+import com.github.kamekoopa.j8utils.data.Try;
+import com.github.kamekoopa.j8utils.utils.SE;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class Retry {
+
+	private final FutureBuilder builder;
+	private final int maxAttempts;
+	private final long initialDelayNanos;
+	private final long maxDelayNanos;
+	private final double multiplier;
+	private final double jitter;
+	private final Predicate<? super Exception> retryOn;
+	private final Option<RetryBudget> budget;
+
+	private final LongAdder callCount = new LongAdder();
+	private final LongAdder retryCount = new LongAdder();
+
+	private Retry(Builder builder) {
+		this.builder = builder.futureBuilder;
+		this.maxAttempts = builder.maxAttempts;
+		this.initialDelayNanos = builder.initialDelayNanos;
+		this.maxDelayNanos = builder.maxDelayNanos;
+		this.multiplier = builder.multiplier;
+		this.jitter = builder.jitter;
+		this.retryOn = builder.retryOn;
+		this.budget = builder.budget;
+	}
+
+	public static Builder builder(FutureBuilder futureBuilder) {
+		return new Builder(Objects.requireNonNull(futureBuilder));
+	}
+
+	public <A> FutureBuilder.Future<Try<A>> run(Supplier<? extends A> supplier) {
+		Objects.requireNonNull(supplier);
+		return rune(supplier::get);
+	}
+
+	public <A> FutureBuilder.Future<Try<A>> rune(SE<? extends A> supplier) {
+
+		Objects.requireNonNull(supplier);
+
+		callCount.increment();
+		budget.peek(() -> {}, RetryBudget::recordCall);
+
+		return attempt(supplier, 1);
+	}
+
+	public long callCount() {
+		return callCount.sum();
+	}
+
+	public long retryCount() {
+		return retryCount.sum();
+	}
+
+	long delayNanos(int attempt) {
+
+		double base = initialDelayNanos * Math.pow(multiplier, attempt - 1);
+		double capped = Math.min(base, maxDelayNanos);
+
+		// jitter=1 で [0, capped] の full jitter、jitter=0 で揺らぎなし
+		double factor = 1.0 - jitter * ThreadLocalRandom.current().nextDouble();
+		return (long) (capped * factor);
+	}
+
+	private <A> FutureBuilder.Future<Try<A>> attempt(SE<? extends A> supplier, int attempt) {
+
+		return builder.<Try<A>>run(() -> Try.<A>of(supplier)).<Try<A>>flatMap(t -> {
+
+			if (t.isSuccess() || attempt >= maxAttempts || !shouldRetry(t)) {
+				return done(t);
+			}
+
+			retryCount.increment();
+			return builder
+				.<FutureBuilder.Future<Try<A>>>delay(delayNanos(attempt), TimeUnit.NANOSECONDS, () -> attempt(supplier, attempt + 1))
+				.<Try<A>>flatMap(next -> next);
+		});
+	}
+
+	private <A> boolean shouldRetry(Try<A> failed) {
+
+		boolean retryable = failed.fold(v -> false, retryOn::test);
+		return retryable && budget.fold(() -> true, RetryBudget::tryAcquire);
+	}
+
+	private <A> FutureBuilder.Future<Try<A>> done(Try<A> t) {
+		return builder.from(CompletableFuture.completedFuture(t));
+	}
+
+
+	public static class Builder {
+
+		private final FutureBuilder futureBuilder;
+		private int maxAttempts = 3;
+		private long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+		private long maxDelayNanos = TimeUnit.SECONDS.toNanos(10);
+		private double multiplier = 2.0;
+		private double jitter = 0.5;
+		private Predicate<? super Exception> retryOn = e -> true;
+		private Option<RetryBudget> budget = Option.none();
+
+		private Builder(FutureBuilder futureBuilder) {
+			this.futureBuilder = futureBuilder;
+		}
+
+		public Builder maxAttempts(int maxAttempts) {
+			if (maxAttempts <= 0) {
+				throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+			}
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		public Builder backoff(long initialDelay, long maxDelay, TimeUnit unit) {
+			if (initialDelay < 0 || maxDelay < initialDelay) {
+				throw new IllegalArgumentException("delays must satisfy 0 <= initialDelay <= maxDelay: " + initialDelay + ", " + maxDelay);
+			}
+			this.initialDelayNanos = unit.toNanos(initialDelay);
+			this.maxDelayNanos = unit.toNanos(maxDelay);
+			return this;
+		}
+
+		public Builder multiplier(double multiplier) {
+			if (multiplier < 1) {
+				throw new IllegalArgumentException("multiplier must be >= 1: " + multiplier);
+			}
+			this.multiplier = multiplier;
+			return this;
+		}
+
+		public Builder jitter(double jitter) {
+			if (jitter < 0 || jitter > 1) {
+				throw new IllegalArgumentException("jitter must be in [0, 1]: " + jitter);
+			}
+			this.jitter = jitter;
+			return this;
+		}
+
+		public Builder retryOn(Predicate<? super Exception> retryOn) {
+			this.retryOn = Objects.requireNonNull(retryOn);
+			return this;
+		}
+
+		public Builder budget(RetryBudget budget) {
+			this.budget = Option.of(Objects.requireNonNull(budget));
+			return this;
+		}
+
+		public Retry build() {
+			return new Retry(this);
+		}
+	}
+}
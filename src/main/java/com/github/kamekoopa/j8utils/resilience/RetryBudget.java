@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RetryBudget {
+
+	private final Budget budget;
+
+	private final LongAdder callCount = new LongAdder();
+	private final LongAdder acquiredCount = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+
+	private RetryBudget(double ratio, int minRetries) {
+		this.budget = new Budget(ratio, minRetries);
+	}
+
+	public static RetryBudget create(double ratio, int minRetries) {
+		return new RetryBudget(ratio, minRetries);
+	}
+
+	void recordCall() {
+		callCount.increment();
+		budget.deposit();
+	}
+
+	boolean tryAcquire() {
+
+		if (budget.tryWithdraw()) {
+			acquiredCount.increment();
+			return true;
+		}
+
+		rejectedCount.increment();
+		return false;
+	}
+
+	public long available() {
+		return budget.available();
+	}
+
+	public long callCount() {
+		return callCount.sum();
+	}
+
+	public long acquiredCount() {
+		return acquiredCount.sum();
+	}
+
+	public long rejectedCount() {
+		return rejectedCount.sum();
+	}
+}
@@ -16,6 +16,9 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple3;
+
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -32,4 +35,14 @@ public interface F3<A, B, C, X> {
 	default Function<A, Function<B, Function<C, X>>> curried() {
 		return a -> b -> c -> apply(a, b, c);
 	}
+
+	default F3<A, B, C, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default F3<A, B, C, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		Function<Tuple3<A, B, C>, X> f = memoizer.memoize(t -> this.apply(t._1, t._2, t._3));
+		return (a, b, c) -> f.apply(Tuple3.of(a, b, c));
+	}
 }
@@ -16,6 +16,9 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple4;
+
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -32,4 +35,14 @@ public interface F4<A, B, C, D, X> {
 	default Function<A, Function<B, Function<C, Function<D, X>>>> curried() {
 		return a -> b -> c -> d -> apply(a, b, c, d);
 	}
+
+	default F4<A, B, C, D, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default F4<A, B, C, D, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		Function<Tuple4<A, B, C, D>, X> f = memoizer.memoize(t -> this.apply(t._1, t._2, t._3, t._4));
+		return (a, b, c, d) -> f.apply(Tuple4.of(a, b, c, d));
+	}
 }
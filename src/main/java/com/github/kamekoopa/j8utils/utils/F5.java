@@ -16,6 +16,9 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple5;
+
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -32,4 +35,14 @@ public interface F5<A, B, C, D, E, X> {
 	default Function<A, Function<B, Function<C, Function<D, Function<E, X>>>>> curried() {
 		return a -> b -> c -> d -> e -> apply(a, b, c, d, e);
 	}
+
+	default F5<A, B, C, D, E, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default F5<A, B, C, D, E, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		Function<Tuple5<A, B, C, D, E>, X> f = memoizer.memoize(t -> this.apply(t._1, t._2, t._3, t._4, t._5));
+		return (a, b, c, d, e) -> f.apply(Tuple5.of(a, b, c, d, e));
+	}
 }
@@ -16,6 +16,9 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+
+import java.util.Objects;
 import java.util.function.Function;
 
 @FunctionalInterface
@@ -26,4 +29,13 @@ public interface FE1<A, X> {
 	}
 
 	X apply(A a) throws Exception;
+
+	default FE1<A, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default FE1<A, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		return memoizer.memoizee(this);
+	}
 }
@@ -16,6 +16,10 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple2;
+
+import java.util.Objects;
 import java.util.function.BiFunction;
 
 @FunctionalInterface
@@ -34,4 +38,14 @@ public interface FE2<A, B, X> {
 	default FE1<A, FE1<B, X>> curried() {
 		return a -> b -> this.apply(a, b);
 	}
+
+	default FE2<A, B, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default FE2<A, B, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		FE1<Tuple2<A, B>, X> f = memoizer.memoizee(t -> this.apply(t._1, t._2));
+		return (a, b) -> f.apply(Tuple2.of(a, b));
+	}
 }
@@ -16,6 +16,11 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple3;
+
+import java.util.Objects;
+
 @FunctionalInterface
 public interface FE3<A, B, C, X> {
 
@@ -24,4 +29,14 @@ public interface FE3<A, B, C, X> {
 	}
 
 	X apply(A a, B b, C c) throws Exception;
+
+	default FE3<A, B, C, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default FE3<A, B, C, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		FE1<Tuple3<A, B, C>, X> f = memoizer.memoizee(t -> this.apply(t._1, t._2, t._3));
+		return (a, b, c) -> f.apply(Tuple3.of(a, b, c));
+	}
 }
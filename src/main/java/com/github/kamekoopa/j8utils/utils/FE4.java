@@ -16,6 +16,11 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple4;
+
+import java.util.Objects;
+
 @FunctionalInterface
 public interface FE4<A, B, C, D, X> {
 
@@ -24,4 +29,14 @@ public interface FE4<A, B, C, D, X> {
 	}
 
 	X apply(A a, B b, C c, D d) throws Exception;
+
+	default FE4<A, B, C, D, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default FE4<A, B, C, D, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		FE1<Tuple4<A, B, C, D>, X> f = memoizer.memoizee(t -> this.apply(t._1, t._2, t._3, t._4));
+		return (a, b, c, d) -> f.apply(Tuple4.of(a, b, c, d));
+	}
 }
@@ -16,6 +16,11 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.cache.Memoizer;
+import com.github.kamekoopa.j8utils.data.Tuple5;
+
+import java.util.Objects;
+
 @FunctionalInterface
 public interface FE5<A, B, C, D, E, X> {
 
@@ -24,4 +29,14 @@ public interface FE5<A, B, C, D, E, X> {
 	}
 
 	X apply(A a, B b, C c, D d, E e) throws Exception;
+
+	default FE5<A, B, C, D, E, X> memoize() {
+		return memoize(Memoizer.defaults());
+	}
+
+	default FE5<A, B, C, D, E, X> memoize(Memoizer memoizer) {
+		Objects.requireNonNull(memoizer);
+		FE1<Tuple5<A, B, C, D, E>, X> f = memoizer.memoizee(t -> this.apply(t._1, t._2, t._3, t._4, t._5));
+		return (a, b, c, d, e) -> f.apply(Tuple5.of(a, b, c, d, e));
+	}
 }
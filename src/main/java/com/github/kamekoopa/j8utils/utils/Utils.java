@@ -16,6 +16,7 @@
 
 package com.github.kamekoopa.j8utils.utils;
 
+import com.github.kamekoopa.j8utils.data.ConsList;
 import com.github.kamekoopa.j8utils.data.Option;
 import com.github.kamekoopa.j8utils.data.Try;
 import com.github.kamekoopa.j8utils.data.Tuple2;
@@ -71,6 +72,14 @@ public class Utils {
 		return get(list, 0);
 	}
 
+	public static <A> A head(ConsList<? extends A> list){
+		return list.head();
+	}
+
+	public static <A> Option<A> headOption(ConsList<? extends A> list){
+		return list.headOption().map(Function.<A>identity());
+	}
+
 	public static <A> List<A> tail(List<? extends A> list){
 		return tail(list, ArrayList::new);
 	}
@@ -88,6 +97,11 @@ public class Utils {
 		return result;
 	}
 
+	@SuppressWarnings("unchecked")
+	public static <A> ConsList<A> tail(ConsList<? extends A> list){
+		return (ConsList<A>) list.tail();
+	}
+
 	public static <A> List<Tuple2<Integer, A>> zipWithIndex(List<? extends A> list) {
 		Supplier<List<Tuple2<Integer, A>>> s = ArrayList::new;
 		return zipWithIndex(list, s);
@@ -95,11 +109,38 @@ public class Utils {
 
 	public static <A> List<Tuple2<Integer, A>> zipWithIndex(List<? extends A> list, Supplier<? extends List<Tuple2<Integer, A>>> listImpl) {
 
-		List<Integer> indexes = IntStream.range(0, list.size())
-			.mapToObj(Integer::valueOf)
-			.collect(Collectors.toList());
+		List<Tuple2<Integer, A>> result = listImpl.get();
+		forEachWithIndex(list, (i, a) -> result.add(Tuple2.of(i, a)));
+		return result;
+	}
+
+	public static <A> List<Tuple2<Integer, A>> zipWithIndexView(List<? extends A> list) {
+		return new IndexedView<>(list);
+	}
+
+	public static <A> void forEachWithIndex(Iterable<? extends A> iterable, IndexedConsumer<? super A> f) {
+
+		int i = 0;
+		for (A a : iterable) {
+			f.accept(i++, a);
+		}
+	}
+
+	public static <A, B> List<B> mapWithIndex(List<? extends A> list, IndexedFunction<? super A, ? extends B> f) {
+		return mapWithIndex(list, f, ArrayList::new);
+	}
+
+	public static <A, B> List<B> mapWithIndex(List<? extends A> list, IndexedFunction<? super A, ? extends B> f, Supplier<? extends List<B>> listImpl) {
 
-		return zip(indexes, list, listImpl);
+		List<B> result = listImpl.get();
+		forEachWithIndex(list, (i, a) -> result.add(f.apply(i, a)));
+		return result;
+	}
+
+	public static <A, B> Stream<B> mapWithIndex(Stream<? extends A> stream, IndexedFunction<? super A, ? extends B> f) {
+
+		Indexed<A, B> indexed = new Indexed<>(stream.spliterator(), f, 0);
+		return StreamSupport.stream(() -> indexed, indexed.characteristics(), stream.isParallel());
 	}
 
 	public static <A, B> List<Tuple2<A, B>> zip(List<? extends A> list1, List<? extends B> list2){
@@ -125,7 +166,7 @@ public class Utils {
 	}
 
 	public static <A> Stream<Tuple2<Integer, A>> zipWithIndex(Stream<? extends A> stream1){
-		return zip(Stream.iterate(0, i -> i + 1), stream1);
+		return mapWithIndex(stream1, (i, a) -> Tuple2.of(i, a));
 	}
 
 	public static <A, B> Stream<Tuple2<A, B>> zip(Stream<? extends A> stream1, Stream<? extends B> stream2){
@@ -134,8 +175,10 @@ public class Utils {
 
 	public static <A, B, C> Stream<C> zipWith(Stream<? extends A> stream1, Stream<? extends B> stream2, BiFunction<? super A, ? super B, ? extends C> f){
 
+		boolean parallel = stream1.isParallel() || stream2.isParallel();
+
 		Zipped<A, B, C> zipped = new Zipped<>(stream1.spliterator(), stream2.spliterator(), f);
-		return StreamSupport.stream(() -> zipped, zipped.characteristics(), false);
+		return StreamSupport.stream(() -> zipped, zipped.characteristics(), parallel);
 	}
 
 	public static <T> List<T> filterSome(List<Option<T>> optionList){
@@ -169,20 +212,25 @@ public class Utils {
 		return acc;
 	}
 
-	private static class Zipped<A, B, C> implements Spliterator<C> {
+	@SuppressWarnings("unchecked")
+	public static <T> ConsList<T> takeWhile(ConsList<? extends T> list, Predicate<? super T> p){
+		return ((ConsList<T>) list).takeWhile(p);
+	}
+
+	private static class Zipped<A, B, C> extends BatchSpliterator<C> {
 
-		private final Spliterator<? extends A> a;
-		private final Spliterator<? extends B> b;
+		private Spliterator<? extends A> a;
+		private Spliterator<? extends B> b;
 		private final BiFunction<? super A, ? super B, ? extends C> f;
 		private final int characteristics;
-		private final long estimateSize;
+		private boolean aligned;
 
 		public Zipped(Spliterator<? extends A> a, Spliterator<? extends B> b, BiFunction<? super A, ? super B, ? extends C> f) {
 			this.a = Objects.requireNonNull(a);
 			this.b = Objects.requireNonNull(b);
 			this.f = f;
-			this.characteristics = a.characteristics() & b.characteristics();
-			this.estimateSize = Math.min(a.estimateSize(), b.estimateSize());
+			this.characteristics = a.characteristics() & b.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE);
+			this.aligned = a.hasCharacteristics(SIZED | SUBSIZED) && b.hasCharacteristics(SIZED | SUBSIZED);
 		}
 
 		@Override
@@ -201,19 +249,101 @@ public class Utils {
 		@Override
 		public Spliterator<C> trySplit() {
 
+			if (aligned) {
+				Spliterator<C> prefix = trySplitAligned();
+				if (prefix != null) {
+					return prefix;
+				}
+				this.aligned = false;
+			}
+
+			return trySplitBatch();
+		}
+
+		private Spliterator<C> trySplitAligned() {
+
+			if (this.a.getExactSizeIfKnown() != this.b.getExactSizeIfKnown()) {
+				return null;
+			}
+
 			Spliterator<? extends A> a = this.a.trySplit();
+			if (a == null) {
+				return null;
+			}
+
 			Spliterator<? extends B> b = this.b.trySplit();
+			if (b != null && a.getExactSizeIfKnown() == b.getExactSizeIfKnown()) {
+				return new Zipped<>(a, b, f);
+			}
+
+			this.a = concat(a, this.a);
+			if (b != null) {
+				this.b = concat(b, this.b);
+			}
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Math.min(a.estimateSize(), b.estimateSize());
+		}
+
+		@Override
+		public int characteristics() {
+			return characteristics;
+		}
+
+		private static <T> Spliterator<T> concat(Spliterator<? extends T> first, Spliterator<? extends T> second) {
+			return Stream.<T>concat(StreamSupport.stream(first, false), StreamSupport.stream(second, false)).spliterator();
+		}
+	}
+
+	private static class Indexed<A, B> extends BatchSpliterator<B> {
+
+		private final Spliterator<? extends A> a;
+		private final IndexedFunction<? super A, ? extends B> f;
+		private final int characteristics;
+		private final boolean sized;
+		private int index;
+
+		public Indexed(Spliterator<? extends A> a, IndexedFunction<? super A, ? extends B> f, int index) {
+			this.a = Objects.requireNonNull(a);
+			this.f = f;
+			this.index = index;
+			this.characteristics = a.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE);
+			this.sized = a.hasCharacteristics(SIZED | SUBSIZED);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super B> action) {
+			return a.tryAdvance(_a -> action.accept(f.apply(index++, _a)));
+		}
 
-			if(a == null || b == null) {
+		@Override
+		public void forEachRemaining(Consumer<? super B> action) {
+			a.forEachRemaining(_a -> action.accept(f.apply(index++, _a)));
+		}
+
+		@Override
+		public Spliterator<B> trySplit() {
+
+			if (!sized) {
+				return trySplitBatch();
+			}
+
+			Spliterator<? extends A> prefix = a.trySplit();
+			if (prefix == null) {
 				return null;
-			}else{
-				return new Zipped<>(a, b, f);
 			}
+
+			Indexed<A, B> indexed = new Indexed<>(prefix, f, index);
+			this.index += prefix.getExactSizeIfKnown();
+			return indexed;
 		}
 
 		@Override
 		public long estimateSize() {
-			return estimateSize;
+			return a.estimateSize();
 		}
 
 		@Override
@@ -221,4 +351,67 @@ public class Utils {
 			return characteristics;
 		}
 	}
+
+	private static abstract class BatchSpliterator<A> implements Spliterator<A> {
+
+		private static final int BATCH_UNIT = 1 << 10;
+		private static final int MAX_BATCH = 1 << 25;
+
+		private int batch = 0;
+
+		protected Spliterator<A> trySplitBatch() {
+
+			Holder<A> holder = new Holder<>();
+			long size = estimateSize();
+			if (size > 1 && tryAdvance(holder)) {
+				int n = batch + BATCH_UNIT;
+				if (n > size) {
+					n = (int) size;
+				}
+				if (n > MAX_BATCH) {
+					n = MAX_BATCH;
+				}
+
+				Object[] buffer = new Object[n];
+				int j = 0;
+				do {
+					buffer[j] = holder.value;
+				} while (++j < n && tryAdvance(holder));
+				this.batch = j;
+
+				return Spliterators.spliterator(buffer, 0, j, characteristics() & ORDERED);
+			}
+
+			return null;
+		}
+	}
+
+	private static class IndexedView<A> extends AbstractList<Tuple2<Integer, A>> implements RandomAccess {
+
+		private final List<? extends A> list;
+
+		public IndexedView(List<? extends A> list) {
+			this.list = Objects.requireNonNull(list);
+		}
+
+		@Override
+		public Tuple2<Integer, A> get(int index) {
+			return Tuple2.of(index, list.get(index));
+		}
+
+		@Override
+		public int size() {
+			return list.size();
+		}
+	}
+
+	private static class Holder<A> implements Consumer<A> {
+
+		private A value;
+
+		@Override
+		public void accept(A a) {
+			this.value = a;
+		}
+	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Try;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class AsyncCacheTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final FutureBuilder builder = FutureBuilder.buildWith(executor);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void ロード結果がFutureで取得できる() throws Exception {
+
+		AsyncCache<String, Integer> cache = AsyncCache.<String, Integer>builder(builder).build(String::length);
+
+		assertThat(cache.get("abc").tryGet().unsafeGet(), is(3));
+		assertTrue(cache.getIfPresent("abc").isSome());
+	}
+
+	@Test
+	public void 同じキーへの要求は一つのロードを共有する() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		AsyncCache<String, Integer> cache = AsyncCache.<String, Integer>builder(builder).build(k -> {
+			count.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return k.length();
+		});
+
+		List<FutureBuilder.Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			futures.add(cache.get("abc"));
+		}
+		release.countDown();
+
+		for (FutureBuilder.Future<Integer> future : futures) {
+			assertThat(future.tryGet().unsafeGet(), is(3));
+		}
+		assertThat(count.get(), is(1));
+	}
+
+	@Test
+	public void 失敗したロードはキャッシュに残らない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		AsyncCache<String, Integer> cache = AsyncCache.<String, Integer>builder(builder).build(k -> {
+			if (count.incrementAndGet() == 1) {
+				throw new IllegalStateException();
+			}
+			return k.length();
+		});
+
+		Try<Integer> failed = cache.get("abc").tryGet();
+		assertTrue(failed.isFailure());
+		assertTrue(cache.getIfPresent("abc").isNone());
+
+		assertThat(cache.get("abc").tryGet().unsafeGet(), is(3));
+	}
+
+	@Test
+	public void 上限を超えると追い出される() throws Exception {
+
+		AsyncCache<Integer, Integer> cache = AsyncCache.<Integer, Integer>builder(builder)
+			.maximumSize(10)
+			.build(k -> k);
+
+		for (int i = 0; i < 100; i++) {
+			cache.get(i).tryGet();
+		}
+		cache.cleanUp();
+
+		assertThat(cache.estimatedSize(), is(10L));
+	}
+
+	@Test
+	public void 書き込みから期限が過ぎると再ロードされる() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		AsyncCache<String, Integer> cache = AsyncCache.<String, Integer>builder(builder)
+			.expireAfterWrite(10, TimeUnit.NANOSECONDS)
+			.ticker(time::get)
+			.build(k -> count.incrementAndGet());
+
+		assertThat(cache.get("a").tryGet().unsafeGet(), is(1));
+		time.set(9);
+		assertThat(cache.get("a").tryGet().unsafeGet(), is(1));
+		time.set(10);
+		assertThat(cache.get("a").tryGet().unsafeGet(), is(2));
+	}
+
+	@Test
+	public void 更新間隔を過ぎるとバックグラウンドで更新され古い値は返され続ける() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		CountDownLatch refreshed = new CountDownLatch(2);
+		AsyncCache<String, Integer> cache = AsyncCache.<String, Integer>builder(FutureBuilder.buildWith(executor).sameThread())
+			.refreshAfterWrite(10, TimeUnit.NANOSECONDS)
+			.ticker(time::get)
+			.build(k -> {
+				refreshed.countDown();
+				return count.incrementAndGet();
+			});
+
+		assertThat(cache.get("a").tryGet().unsafeGet(), is(1));
+
+		time.set(10);
+		assertThat(cache.get("a").tryGet().unsafeGet(), is(1));
+
+		assertTrue(refreshed.await(1, TimeUnit.SECONDS));
+		for (int i = 0; i < 100 && cache.getIfPresent("a").map(f -> f.tryGet().recover(e -> -1)).getOrElse(() -> -1) != 2; i++) {
+			Thread.sleep(10);
+		}
+		assertThat(cache.get("a").tryGet().unsafeGet(), is(2));
+	}
+}
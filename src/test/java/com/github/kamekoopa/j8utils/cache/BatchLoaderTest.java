@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Option;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class BatchLoaderTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+	private final FutureBuilder builder = FutureBuilder.buildWith(executor);
+
+	private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	private Map<String, Integer> lengths(List<String> keys) {
+		calls.add(new ArrayList<>(keys));
+		Map<String, Integer> result = new HashMap<>();
+		for (String key : keys) {
+			if (!key.startsWith("missing")) {
+				result.put(key, key.length());
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void 時間窓内の要求は一回の一括呼び出しにまとめられる() throws Exception {
+
+		BatchLoader<String, Integer> loader = BatchLoader.<String, Integer>builder(builder)
+			.maxDelay(20, TimeUnit.MILLISECONDS)
+			.build(this::lengths);
+
+		FutureBuilder.Future<Option<Integer>> a = loader.load("a");
+		FutureBuilder.Future<Option<Integer>> bb = loader.load("bb");
+		FutureBuilder.Future<Option<Integer>> missing = loader.load("missing");
+
+		assertThat(a.tryGet().unsafeGet(), is(Option.of(1)));
+		assertThat(bb.tryGet().unsafeGet(), is(Option.of(2)));
+		assertThat(missing.tryGet().unsafeGet(), is(Option.<Integer>none()));
+		assertThat(calls, is(Collections.singletonList(Arrays.asList("a", "bb", "missing"))));
+	}
+
+	@Test
+	public void 同じキーは一つにまとめられる() throws Exception {
+
+		BatchLoader<String, Integer> loader = BatchLoader.<String, Integer>builder(builder)
+			.maxDelay(1, TimeUnit.SECONDS)
+			.build(this::lengths);
+
+		FutureBuilder.Future<Option<Integer>> first = loader.load("key");
+		FutureBuilder.Future<Option<Integer>> second = loader.load("key");
+		loader.flush();
+
+		assertThat(first.tryGet().unsafeGet(), is(Option.of(3)));
+		assertThat(second.tryGet().unsafeGet(), is(Option.of(3)));
+		assertThat(calls, is(Collections.singletonList(Collections.singletonList("key"))));
+		assertThat(loader.stats().requestCount(), is(2L));
+		assertThat(loader.stats().keyCount(), is(1L));
+	}
+
+	@Test
+	public void 最大バッチサイズに達すると時間窓を待たずに実行される() throws Exception {
+
+		List<BatchLoader.BatchMetrics> metrics = new CopyOnWriteArrayList<>();
+		BatchLoader<String, Integer> loader = BatchLoader.<String, Integer>builder(builder)
+			.maxBatchSize(2)
+			.maxDelay(1, TimeUnit.HOURS)
+			.metricsListener(metrics::add)
+			.build(this::lengths);
+
+		FutureBuilder.Future<Option<Integer>> a = loader.load("a");
+		FutureBuilder.Future<Option<Integer>> b = loader.load("b");
+		FutureBuilder.Future<Option<Integer>> c = loader.load("c");
+
+		assertThat(a.tryGet(1, TimeUnit.SECONDS).unsafeGet(), is(Option.of(1)));
+		assertThat(b.tryGet(1, TimeUnit.SECONDS).unsafeGet(), is(Option.of(1)));
+		assertThat(c.tryGet(50, TimeUnit.MILLISECONDS).isFailure(), is(true));
+
+		loader.flush();
+		assertThat(c.tryGet(1, TimeUnit.SECONDS).unsafeGet(), is(Option.of(1)));
+
+		assertThat(calls, is(Arrays.asList(Arrays.asList("a", "b"), Collections.singletonList("c"))));
+		assertThat(metrics.get(0).trigger(), is(BatchLoader.Trigger.SIZE));
+		assertThat(metrics.get(0).keyCount(), is(2));
+		assertThat(metrics.get(1).trigger(), is(BatchLoader.Trigger.MANUAL));
+	}
+
+	@Test
+	public void 一括呼び出しの失敗はバッチ内の全ての要求に伝わる() throws Exception {
+
+		BatchLoader<String, Integer> loader = BatchLoader.<String, Integer>builder(builder)
+			.maxDelay(1, TimeUnit.MILLISECONDS)
+			.build(keys -> {
+				throw new IllegalStateException("backend down");
+			});
+
+		FutureBuilder.Future<Option<Integer>> a = loader.load("a");
+		FutureBuilder.Future<Option<Integer>> b = loader.load("b");
+
+		assertThat(a.tryGet().fold(v -> null, Exception::getMessage), is("backend down"));
+		assertThat(b.tryGet().fold(v -> null, Exception::getMessage), is("backend down"));
+		assertThat(loader.stats().batchCount(), is(1L));
+		assertThat(loader.stats().failureCount(), is(1L));
+	}
+
+	@Test
+	public void 呼び出し元の取り消しは他の呼び出し元に影響しない() throws Exception {
+
+		BatchLoader<String, Integer> loader = BatchLoader.<String, Integer>builder(builder)
+			.maxDelay(1, TimeUnit.SECONDS)
+			.build(this::lengths);
+
+		FutureBuilder.Future<Option<Integer>> cancelled = loader.load("key");
+		FutureBuilder.Future<Option<Integer>> other = loader.load("key");
+
+		assertTrue(cancelled.cancel());
+		loader.flush();
+
+		assertThat(cancelled.tryGet().isFailure(), is(true));
+		assertThat(other.tryGet().unsafeGet(), is(Option.of(3)));
+	}
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.Option;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+@RunWith(Enclosed.class)
+public class CacheTest {
+
+	@RunWith(JUnit4.class)
+	public static class 値を取得する場合 {
+
+		@Test
+		public void 存在しないキーはnoneになる() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+
+			assertThat(cache.get("a"), is(Option.none()));
+		}
+
+		@Test
+		public void putした値はsomeで取得できる() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+			cache.put("a", 1);
+
+			assertThat(cache.get("a"), is(Option.of(1)));
+		}
+
+		@Test
+		public void 上書きすると新しい値が取得できる() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().maximumSize(10).build();
+			cache.put("a", 1);
+			cache.put("a", 2);
+			cache.cleanUp();
+
+			assertThat(cache.get("a"), is(Option.of(2)));
+			assertThat(cache.estimatedSize(), is(1L));
+		}
+
+		@Test
+		public void invalidateすると取得できなくなる() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+			cache.put("a", 1);
+			cache.put("b", 2);
+
+			cache.invalidate("a");
+			assertThat(cache.get("a"), is(Option.none()));
+			assertThat(cache.get("b"), is(Option.of(2)));
+
+			cache.invalidateAll();
+			assertThat(cache.get("b"), is(Option.none()));
+			assertThat(cache.estimatedSize(), is(0L));
+		}
+
+		@Test
+		public void 値が一致する時だけ削除や置換ができる() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+			cache.put("a", 1);
+
+			assertThat(cache.invalidate("a", 2), is(false));
+			assertThat(cache.replace("a", 2, 3), is(false));
+			assertThat(cache.get("a"), is(Option.of(1)));
+
+			assertThat(cache.replace("a", 1, 3), is(true));
+			assertThat(cache.get("a"), is(Option.of(3)));
+
+			assertThat(cache.invalidate("a", 3), is(true));
+			assertThat(cache.get("a"), is(Option.none()));
+		}
+
+		@Test
+		public void ヒットとミスが記録される() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+			cache.put("a", 1);
+
+			cache.get("a");
+			cache.get("a");
+			cache.get("b");
+
+			CacheStats stats = cache.stats();
+			assertThat(stats.hitCount(), is(2L));
+			assertThat(stats.missCount(), is(1L));
+			assertThat(stats.hitRate(), is(closeTo(2.0 / 3.0, 0.0001)));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class computeIfAbsentする場合 {
+
+		@Test
+		public void 存在しなければロードした値を格納する() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+
+			assertThat(cache.computeIfAbsent("abc", String::length), is(3));
+			assertThat(cache.get("abc"), is(Option.of(3)));
+
+			CacheStats stats = cache.stats();
+			assertThat(stats.missCount(), is(1L));
+			assertThat(stats.hitCount(), is(1L));
+			assertThat(stats.loadSuccessCount(), is(1L));
+		}
+
+		@Test
+		public void 存在すればロードしない() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+			cache.put("abc", 10);
+
+			assertThat(cache.computeIfAbsent("abc", k -> { throw new AssertionError(); }), is(10));
+			assertThat(cache.stats().loadSuccessCount(), is(0L));
+		}
+
+		@Test
+		public void ロードが例外を投げると格納されず失敗が記録される() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+
+			try {
+				cache.computeIfAbsent("abc", k -> { throw new IllegalStateException(); });
+				fail();
+			} catch (IllegalStateException e) {
+				assertThat(cache.get("abc"), is(Option.none()));
+				assertThat(cache.stats().loadFailureCount(), is(1L));
+			}
+		}
+
+		@Test
+		public void ロードがnullを返すと格納されない() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+
+			assertThat(cache.computeIfAbsent("abc", k -> null), is(nullValue()));
+			assertThat(cache.get("abc"), is(Option.none()));
+		}
+
+		@Test
+		public void 同じキーへの同時ロードは一度だけ実行される() throws Exception {
+
+			Cache<String, Integer> cache = Cache.<String, Integer>builder().build();
+			AtomicInteger loads = new AtomicInteger();
+			CountDownLatch start = new CountDownLatch(1);
+
+			ExecutorService executor = Executors.newFixedThreadPool(8);
+			try {
+				List<Future<Integer>> results = new ArrayList<>();
+				for (int i = 0; i < 8; i++) {
+					results.add(executor.submit(() -> {
+						start.await();
+						return cache.computeIfAbsent("key", k -> {
+							loads.incrementAndGet();
+							sleep(50);
+							return 42;
+						});
+					}));
+				}
+				start.countDown();
+
+				for (Future<Integer> result : results) {
+					assertThat(result.get(), is(42));
+				}
+			} finally {
+				executor.shutdown();
+			}
+
+			assertThat(loads.get(), is(1));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class サイズ上限がある場合 {
+
+		@Test
+		public void 上限を超えると追い出される() throws Exception {
+
+			Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().maximumSize(100).build();
+			for (int i = 0; i < 1000; i++) {
+				cache.put(i, i);
+			}
+			cache.cleanUp();
+
+			assertThat(cache.estimatedSize(), is(100L));
+			assertThat(cache.stats().evictionCount(), is(900L));
+		}
+
+		@Test
+		public void 頻繁に使われるキーは走査に押し流されない() throws Exception {
+
+			Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().maximumSize(100).build();
+			for (int i = 0; i < 50; i++) {
+				cache.put(i, i);
+			}
+			for (int round = 0; round < 10; round++) {
+				for (int i = 0; i < 50; i++) {
+					cache.get(i);
+				}
+				cache.cleanUp();
+			}
+
+			for (int i = 1000; i < 2000; i++) {
+				cache.put(i, i);
+			}
+			cache.cleanUp();
+
+			int retained = 0;
+			for (int i = 0; i < 50; i++) {
+				if (cache.get(i).isSome()) {
+					retained++;
+				}
+			}
+			assertThat(retained, is(50));
+			assertThat(cache.estimatedSize(), is(100L));
+		}
+
+		@Test
+		public void 重みの合計で追い出される() throws Exception {
+
+			Cache<String, String> cache = Cache.<String, String>builder()
+				.maximumWeight(10, (k, v) -> v.length())
+				.build();
+
+			cache.put("a", "12345");
+			cache.put("b", "12345");
+			cache.cleanUp();
+			assertThat(cache.estimatedSize(), is(2L));
+
+			cache.put("c", "123");
+			cache.cleanUp();
+			assertThat(cache.estimatedSize(), is(2L));
+		}
+
+		@Test
+		public void 上限より重いエントリはすぐ追い出される() throws Exception {
+
+			Cache<String, String> cache = Cache.<String, String>builder()
+				.maximumWeight(10, (k, v) -> v.length())
+				.build();
+
+			cache.put("a", "12345678901");
+			cache.cleanUp();
+
+			assertThat(cache.get("a"), is(Option.none()));
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void 負の上限は指定できない() throws Exception {
+			Cache.builder().maximumSize(-1);
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class 有効期限がある場合 {
+
+		@Test
+		public void 書き込みから期限が過ぎると取得できない() throws Exception {
+
+			AtomicLong time = new AtomicLong();
+			Cache<String, Integer> cache = Cache.<String, Integer>builder()
+				.expireAfterWrite(10, TimeUnit.NANOSECONDS)
+				.ticker(time::get)
+				.build();
+
+			cache.put("a", 1);
+			time.set(9);
+			assertThat(cache.get("a"), is(Option.of(1)));
+
+			time.set(10);
+			assertThat(cache.get("a"), is(Option.none()));
+			assertThat(cache.estimatedSize(), is(0L));
+			assertThat(cache.stats().evictionCount(), is(1L));
+		}
+
+		@Test
+		public void 上書きすると書き込み期限が延長される() throws Exception {
+
+			AtomicLong time = new AtomicLong();
+			Cache<String, Integer> cache = Cache.<String, Integer>builder()
+				.expireAfterWrite(10, TimeUnit.NANOSECONDS)
+				.ticker(time::get)
+				.build();
+
+			cache.put("a", 1);
+			time.set(8);
+			cache.put("a", 2);
+			time.set(15);
+			cache.cleanUp();
+
+			assertThat(cache.get("a"), is(Option.of(2)));
+		}
+
+		@Test
+		public void アクセスから期限が過ぎると取得できない() throws Exception {
+
+			AtomicLong time = new AtomicLong();
+			Cache<String, Integer> cache = Cache.<String, Integer>builder()
+				.expireAfterAccess(10, TimeUnit.NANOSECONDS)
+				.ticker(time::get)
+				.build();
+
+			cache.put("a", 1);
+			time.set(8);
+			assertThat(cache.get("a"), is(Option.of(1)));
+			time.set(16);
+			assertThat(cache.get("a"), is(Option.of(1)));
+
+			time.set(26);
+			assertThat(cache.get("a"), is(Option.none()));
+		}
+
+		@Test
+		public void 期限切れのエントリは保守処理で取り除かれる() throws Exception {
+
+			AtomicLong time = new AtomicLong();
+			Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder()
+				.expireAfterWrite(10, TimeUnit.NANOSECONDS)
+				.ticker(time::get)
+				.build();
+
+			for (int i = 0; i < 10; i++) {
+				cache.put(i, i);
+			}
+			time.set(10);
+			cache.cleanUp();
+
+			assertThat(cache.estimatedSize(), is(0L));
+			assertThat(cache.stats().evictionCount(), is(10L));
+		}
+
+		@Test
+		public void 期限切れならcomputeIfAbsentで再ロードされる() throws Exception {
+
+			AtomicLong time = new AtomicLong();
+			Cache<String, Integer> cache = Cache.<String, Integer>builder()
+				.expireAfterWrite(10, TimeUnit.NANOSECONDS)
+				.ticker(time::get)
+				.build();
+
+			cache.put("a", 1);
+			time.set(10);
+
+			assertThat(cache.computeIfAbsent("a", k -> 2), is(2));
+			assertThat(cache.get("a"), is(Option.of(2)));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class 並行にアクセスする場合 {
+
+		@Test
+		public void 上限と整合性が保たれる() throws Exception {
+
+			Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().maximumSize(500).build();
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			try {
+				List<Future<?>> results = new ArrayList<>();
+				for (int t = 0; t < 4; t++) {
+					int seed = t;
+					results.add(executor.submit(() -> {
+						for (int i = 0; i < 20000; i++) {
+							int key = (i * 31 + seed) % 2000;
+							if (i % 3 == 0) {
+								cache.put(key, key);
+							} else {
+								cache.get(key).peek(() -> {}, v -> assertThat(v, is(key)));
+							}
+						}
+					}));
+				}
+				for (Future<?> result : results) {
+					result.get();
+				}
+			} finally {
+				executor.shutdown();
+			}
+
+			cache.cleanUp();
+			assertThat(cache.estimatedSize(), is(lessThanOrEqualTo(500L)));
+		}
+
+		@Test
+		public void 書き込みと削除が競合しても削除済みのエントリは残らない() throws Exception {
+
+			Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().build();
+
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				List<Future<?>> results = new ArrayList<>();
+				results.add(executor.submit(() -> {
+					for (int i = 0; i < 50000; i++) {
+						cache.put(i % 4, i);
+					}
+				}));
+				results.add(executor.submit(() -> {
+					for (int i = 0; i < 50000; i++) {
+						cache.invalidate(i % 4);
+					}
+				}));
+				for (Future<?> result : results) {
+					result.get();
+				}
+			} finally {
+				executor.shutdown();
+			}
+
+			cache.invalidateAll();
+			cache.cleanUp();
+
+			assertThat(cache.estimatedSize(), is(0L));
+			assertThat(cache.weightedSize(), is(0L));
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.utils.F3;
+import com.github.kamekoopa.j8utils.utils.F5;
+import com.github.kamekoopa.j8utils.utils.FE1;
+import com.github.kamekoopa.j8utils.utils.FE3;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class MemoizerTest {
+
+	@Test
+	public void 同じ引数なら一度だけ計算される() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		F3<Integer, Integer, Integer, Integer> f = (a, b, c) -> {
+			count.incrementAndGet();
+			return a + b + c;
+		};
+		F3<Integer, Integer, Integer, Integer> memoized = f.memoize();
+
+		assertThat(memoized.apply(1, 2, 3), is(6));
+		assertThat(memoized.apply(1, 2, 3), is(6));
+		assertThat(memoized.apply(3, 2, 1), is(6));
+		assertThat(count.get(), is(2));
+	}
+
+	@Test
+	public void nullの引数も区別して扱える() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		F5<String, String, String, String, String, String> f = (a, b, c, d, e) -> {
+			count.incrementAndGet();
+			return a + b + c + d + e;
+		};
+		F5<String, String, String, String, String, String> memoized = f.memoize();
+
+		assertThat(memoized.apply("a", null, "c", "d", "e"), is("anullcde"));
+		assertThat(memoized.apply("a", null, "c", "d", "e"), is("anullcde"));
+		assertThat(count.get(), is(1));
+	}
+
+	@Test
+	public void 上限を超えると追い出されて再計算される() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		FE1<Integer, Integer> f = i -> {
+			count.incrementAndGet();
+			return i;
+		};
+		FE1<Integer, Integer> memoized = f.memoize(Memoizer.defaults().maximumSize(10));
+
+		for (int i = 0; i < 100; i++) {
+			memoized.apply(i);
+		}
+		count.set(0);
+		for (int i = 0; i < 100; i++) {
+			memoized.apply(i);
+		}
+
+		assertThat(count.get() >= 90, is(true));
+	}
+
+	@Test
+	public void 期限が過ぎると再計算される() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		FE1<String, Integer> f = s -> {
+			count.incrementAndGet();
+			return s.length();
+		};
+		FE1<String, Integer> memoized = f.memoize(
+			Memoizer.defaults().expireAfterWrite(10, TimeUnit.NANOSECONDS).ticker(time::get)
+		);
+
+		memoized.apply("abc");
+		time.set(9);
+		memoized.apply("abc");
+		assertThat(count.get(), is(1));
+
+		time.set(10);
+		memoized.apply("abc");
+		assertThat(count.get(), is(2));
+	}
+
+	@Test
+	public void 失敗はデフォルトではキャッシュされない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		FE3<String, String, String, String> f = (a, b, c) -> {
+			if (count.incrementAndGet() == 1) {
+				throw new IOException();
+			}
+			return a + b + c;
+		};
+		FE3<String, String, String, String> memoized = f.memoize();
+
+		try {
+			memoized.apply("a", "b", "c");
+			fail();
+		} catch (IOException e) {
+			// 期待通り
+		}
+
+		assertThat(memoized.apply("a", "b", "c"), is("abc"));
+		assertThat(count.get(), is(2));
+	}
+
+	@Test
+	public void 失敗は指定した期間だけキャッシュされる() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		IOException failure = new IOException();
+		FE1<String, Integer> f = s -> {
+			if (count.incrementAndGet() == 1) {
+				throw failure;
+			}
+			return s.length();
+		};
+		FE1<String, Integer> memoized = f.memoize(
+			Memoizer.defaults().cacheFailuresFor(10, TimeUnit.NANOSECONDS).ticker(time::get)
+		);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				memoized.apply("abc");
+				fail();
+			} catch (IOException e) {
+				assertThat(e, is(sameInstance(failure)));
+			}
+		}
+		assertThat(count.get(), is(1));
+
+		time.set(10);
+		assertThat(memoized.apply("abc"), is(3));
+		assertThat(count.get(), is(2));
+	}
+
+	@Test
+	public void 同じ引数での同時呼び出しは一度だけ計算される() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		FE1<String, Integer> f = s -> {
+			count.incrementAndGet();
+			Thread.sleep(50);
+			return s.length();
+		};
+		FE1<String, Integer> memoized = f.memoize();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return memoized.apply("abc");
+				}));
+			}
+			start.countDown();
+
+			for (Future<Integer> result : results) {
+				assertThat(result.get(), is(3));
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(count.get(), is(1));
+	}
+
+	@Test(timeout = 10_000)
+	public void 再帰的な関数をメモ化できる() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		List<Function<Integer, Long>> holder = new ArrayList<>();
+		Function<Integer, Long> fib = Memoizer.defaults().memoize(n -> {
+			count.incrementAndGet();
+			return n < 2 ? (long) n : holder.get(0).apply(n - 1) + holder.get(0).apply(n - 2);
+		});
+		holder.add(fib);
+
+		assertThat(fib.apply(25), is(75025L));
+		assertThat(fib.apply(30), is(832040L));
+		assertThat(count.get(), is(31));
+	}
+
+	@Test(timeout = 10_000)
+	public void 同じキーへの再帰呼び出しはIllegalStateExceptionになる() throws Exception {
+
+		List<FE1<String, String>> holder = new ArrayList<>();
+		FE1<String, String> f = Memoizer.defaults().memoizee(key -> holder.get(0).apply(key));
+		holder.add(f);
+
+		try {
+			f.apply("key");
+			fail();
+		} catch (IllegalStateException e) {
+			assertThat(e.getMessage(), is("recursive load of the same key: key"));
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.Option;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class OptionLoadingCacheTest {
+
+	@Test
+	public void 存在する値はロード結果が返りキャッシュされる() throws Exception {
+
+		AtomicInteger loads = new AtomicInteger();
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.build(k -> { loads.incrementAndGet(); return Option.of(k.length()); });
+
+		assertThat(cache.get("abc"), is(Option.of(3)));
+		assertThat(cache.get("abc"), is(Option.of(3)));
+		assertThat(loads.get(), is(1));
+		assertThat(cache.getIfPresent("abc"), is(Option.of(Option.of(3))));
+	}
+
+	@Test
+	public void noneの結果もキャッシュされる() throws Exception {
+
+		AtomicInteger loads = new AtomicInteger();
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.build(k -> { loads.incrementAndGet(); return Option.none(); });
+
+		assertThat(cache.get("missing"), is(Option.none()));
+		assertThat(cache.get("missing"), is(Option.none()));
+		assertThat(loads.get(), is(1));
+		assertThat(cache.getIfPresent("missing"), is(Option.of(Option.none())));
+		assertThat(cache.negativeStats().hitCount(), is(2L));
+	}
+
+	@Test
+	public void noneの結果のヒットは正のキャッシュのミスに数えない() throws Exception {
+
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.build(k -> k.equals("missing") ? Option.none() : Option.of(k.length()));
+
+		cache.get("missing");
+		cache.get("key");
+		long positiveMisses = cache.stats().missCount();
+
+		assertThat(cache.get("missing"), is(Option.none()));
+		assertThat(cache.get("missing"), is(Option.none()));
+		assertThat(cache.get("key"), is(Option.of(3)));
+
+		assertThat(cache.stats().missCount(), is(positiveMisses));
+		assertThat(cache.stats().hitCount(), is(1L));
+		assertThat(cache.negativeStats().hitCount(), is(2L));
+	}
+
+	@Test
+	public void noneの結果は個別の期限で失効する() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		Map<String, Integer> backend = new HashMap<>();
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.expireAfterWrite(100, TimeUnit.NANOSECONDS)
+			.negativeExpireAfterWrite(10, TimeUnit.NANOSECONDS)
+			.ticker(time::get)
+			.build(k -> Option.of(backend.get(k)));
+
+		backend.put("a", 1);
+		assertThat(cache.get("a"), is(Option.of(1)));
+		assertThat(cache.get("b"), is(Option.none()));
+
+		backend.put("b", 2);
+		time.set(5);
+		assertThat(cache.get("b"), is(Option.none()));
+
+		time.set(10);
+		backend.put("a", 100);
+		assertThat(cache.get("b"), is(Option.of(2)));
+		assertThat(cache.get("a"), is(Option.of(1)));
+	}
+
+	@Test
+	public void noneの結果は個別の上限で追い出される() throws Exception {
+
+		OptionLoadingCache<Integer, Integer> cache = OptionLoadingCache.<Integer, Integer>builder()
+			.maximumSize(100)
+			.negativeMaximumSize(10)
+			.build(k -> k % 2 == 0 ? Option.of(k) : Option.none());
+
+		for (int i = 0; i < 100; i++) {
+			cache.get(i);
+		}
+		cache.cleanUp();
+
+		long positives = 0;
+		long negatives = 0;
+		for (int i = 0; i < 100; i++) {
+			Option<Option<Integer>> cached = cache.getIfPresent(i);
+			if (cached.isSome()) {
+				if (i % 2 == 0) positives++; else negatives++;
+			}
+		}
+		assertThat(positives, is(50L));
+		assertThat(negatives, is(10L));
+	}
+
+	@Test
+	public void ロードの失敗はキャッシュされない() throws Exception {
+
+		AtomicInteger loads = new AtomicInteger();
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.build(k -> {
+				if (loads.incrementAndGet() == 1) {
+					throw new IOException();
+				}
+				return Option.of(1);
+			});
+
+		try {
+			cache.gete("a");
+			fail();
+		} catch (IOException e) {
+			assertThat(cache.getIfPresent("a"), is(Option.none()));
+		}
+
+		assertThat(cache.get("a"), is(Option.of(1)));
+	}
+
+	@Test
+	public void invalidateすると再ロードされる() throws Exception {
+
+		AtomicInteger loads = new AtomicInteger();
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.build(k -> { loads.incrementAndGet(); return Option.none(); });
+
+		cache.get("a");
+		cache.invalidate("a");
+		cache.get("a");
+
+		assertThat(loads.get(), is(2));
+	}
+
+	@Test
+	public void 同じキーへの同時ロードは一度にまとめられる() throws Exception {
+
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		OptionLoadingCache<String, Integer> cache = OptionLoadingCache.<String, Integer>builder()
+			.build(k -> {
+				loads.incrementAndGet();
+				Thread.sleep(50);
+				return Option.none();
+			});
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Option<Integer>>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return cache.gete("missing");
+				}));
+			}
+			start.countDown();
+
+			for (Future<Option<Integer>> result : results) {
+				assertThat(result.get(), is(Option.none()));
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(loads.get(), is(1));
+	}
+}
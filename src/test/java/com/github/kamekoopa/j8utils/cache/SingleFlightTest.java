@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.cache;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Try;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class SingleFlightTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final FutureBuilder builder = FutureBuilder.buildWith(executor);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void 実行中の同じキーは一つの計算を共有する() throws Exception {
+
+		SingleFlight<String, Integer> singleFlight = SingleFlight.create(builder);
+		AtomicInteger count = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<FutureBuilder.Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			futures.add(singleFlight.run("key", () -> {
+				count.incrementAndGet();
+				await(release);
+				return 42;
+			}));
+		}
+		assertThat(singleFlight.inFlightCount(), is(1));
+
+		release.countDown();
+		for (FutureBuilder.Future<Integer> future : futures) {
+			assertThat(future.tryGet().unsafeGet(), is(42));
+		}
+		assertThat(count.get(), is(1));
+	}
+
+	@Test
+	public void 異なるキーは別々に計算される() throws Exception {
+
+		SingleFlight<String, String> singleFlight = SingleFlight.create(builder);
+
+		FutureBuilder.Future<String> a = singleFlight.run("a", () -> "A");
+		FutureBuilder.Future<String> b = singleFlight.run("b", () -> "B");
+
+		assertThat(a.tryGet().unsafeGet(), is("A"));
+		assertThat(b.tryGet().unsafeGet(), is("B"));
+	}
+
+	@Test
+	public void 完了すると取り除かれ次は再計算される() throws Exception {
+
+		SingleFlight<String, Integer> singleFlight = SingleFlight.create(builder);
+		AtomicInteger count = new AtomicInteger();
+
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(1));
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(2));
+		assertThat(singleFlight.inFlightCount(), is(0));
+	}
+
+	@Test
+	public void 失敗は共有されるが残らない() throws Exception {
+
+		SingleFlight<String, Integer> singleFlight = SingleFlight.create(builder, 100, 1, TimeUnit.HOURS);
+		AtomicInteger count = new AtomicInteger();
+
+		Try<Integer> failed = singleFlight.run("key", () -> {
+			count.incrementAndGet();
+			throw new IllegalStateException();
+		}).tryGet();
+
+		assertTrue(failed.isFailure());
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(2));
+		assertThat(singleFlight.inFlightCount(), is(0));
+	}
+
+	@Test
+	public void 結果キャッシュがあれば期限まで結果を再利用する() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		SingleFlight<String, Integer> singleFlight = SingleFlight.create(builder, 100, 10, TimeUnit.NANOSECONDS, time::get);
+		AtomicInteger count = new AtomicInteger();
+
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(1));
+		time.set(9);
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(1));
+
+		time.set(10);
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(2));
+
+		singleFlight.forget("key");
+		assertThat(singleFlight.run("key", count::incrementAndGet).tryGet().unsafeGet(), is(3));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.concurrent;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TimerWheelTest {
+
+	private final TimerWheel timer = new TimerWheel(1, TimeUnit.MILLISECONDS, 8);
+
+	@After
+	public void tearDown() throws Exception {
+		timer.stop();
+	}
+
+	@Test
+	public void 指定時間の後に実行される() throws Exception {
+
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+
+		TimerWheel.Timeout timeout = timer.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(50L)));
+		assertTrue(timeout.isExpired());
+	}
+
+	@Test
+	public void ホイールを何周もする遅延も扱える() throws Exception {
+
+		CountDownLatch latch = new CountDownLatch(1);
+		long start = System.nanoTime();
+
+		timer.schedule(latch::countDown, 30, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(30L)));
+	}
+
+	@Test
+	public void 桁あふれする遅延でも即座には実行されない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+
+		TimerWheel.Timeout nanos = timer.schedule(count::incrementAndGet, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		TimerWheel.Timeout days = timer.schedule(count::incrementAndGet, Long.MAX_VALUE, TimeUnit.DAYS);
+		Thread.sleep(50);
+
+		assertThat(count.get(), is(0));
+		assertFalse(nanos.isExpired());
+		assertFalse(days.isExpired());
+	}
+
+	@Test
+	public void キャンセルすると実行されない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+
+		TimerWheel.Timeout timeout = timer.schedule(count::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+
+		Thread.sleep(100);
+
+		assertThat(count.get(), is(0));
+		assertTrue(timeout.isCancelled());
+		assertThat(timer.pendingCount(), is(0L));
+	}
+
+	@Test
+	public void 大量のタイムアウトを登録できる() throws Exception {
+
+		int size = 100_000;
+		CountDownLatch latch = new CountDownLatch(size / 2);
+
+		for (int i = 0; i < size; i++) {
+			TimerWheel.Timeout timeout = timer.schedule(latch::countDown, 10 + (i % 20), TimeUnit.MILLISECONDS);
+			if (i % 2 == 0) {
+				timeout.cancel();
+			}
+		}
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertThat(timer.pendingCount(), is(0L));
+	}
+
+	@Test
+	public void タスクが例外を投げても他のタスクは実行される() throws Exception {
+
+		CountDownLatch latch = new CountDownLatch(1);
+
+		timer.schedule(() -> { throw new IllegalStateException(); }, 5, TimeUnit.MILLISECONDS);
+		timer.schedule(latch::countDown, 10, TimeUnit.MILLISECONDS);
+
+		assertTrue(latch.await(1, TimeUnit.SECONDS));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void 停止した後は登録できない() throws Exception {
+
+		timer.schedule(() -> {}, 1, TimeUnit.MILLISECONDS);
+		timer.stop();
+
+		timer.schedule(() -> {}, 1, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void 停止すると未実行のタイムアウトが返される() throws Exception {
+
+		AtomicInteger ran = new AtomicInteger();
+		TimerWheel.Timeout first = timer.schedule(ran::incrementAndGet, 1, TimeUnit.HOURS);
+		TimerWheel.Timeout second = timer.schedule(ran::incrementAndGet, 2, TimeUnit.HOURS);
+		TimerWheel.Timeout cancelled = timer.schedule(ran::incrementAndGet, 3, TimeUnit.HOURS);
+		cancelled.cancel();
+		Thread.sleep(10);
+
+		Set<TimerWheel.Timeout> unprocessed = timer.stop();
+
+		assertThat(unprocessed, containsInAnyOrder(first, second));
+		for (TimerWheel.Timeout timeout : unprocessed) {
+			timeout.task().run();
+		}
+		assertThat(ran.get(), is(2));
+		assertThat(timer.stop(), is(empty()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void 共有インスタンスは停止できない() throws Exception {
+		TimerWheel.shared().stop();
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import com.github.kamekoopa.j8utils.test.Tools.A;
+import com.github.kamekoopa.j8utils.test.Tools.B;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Enclosed.class)
+public class ConsListTest {
+
+	@RunWith(JUnit4.class)
+	public static class 共通 {
+
+		@Test
+		public void consの共変反変() throws Exception {
+
+			ConsList<B> bs = ConsList.of(new B(1, 2));
+
+			ConsList<A> as = ConsList.<A>cons(new A(0), bs);
+
+			assertThat(as.size(), is(2));
+			assertThat(as.tail().head().a, is(1));
+		}
+
+		@Test
+		public void fromで他のIterableから作れる() throws Exception {
+
+			ConsList<Integer> list = ConsList.from(Arrays.asList(1, 2, 3));
+
+			assertThat(list, is(ConsList.of(1, 2, 3)));
+		}
+
+		@Test
+		public void fromにConsListを渡すとそのまま返る() throws Exception {
+
+			ConsList<Integer> list = ConsList.of(1, 2, 3);
+
+			assertThat(ConsList.from(list), is(sameInstance(list)));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class 要素が存在する時 {
+
+		ConsList<Integer> list;
+
+		@Before
+		public void setUp() throws Exception {
+			this.list = ConsList.of(1, 2, 3, 4, 5);
+		}
+
+		@Test
+		public void headで最初の要素が取得できる() throws Exception {
+			assertThat(list.head(), is(1));
+			assertThat(list.headOption(), is(Option.of(1)));
+		}
+
+		@Test
+		public void tailは残りのリストを共有する() throws Exception {
+
+			ConsList<Integer> prepended = list.prepend(0);
+
+			assertThat(prepended.tail(), is(sameInstance(list)));
+		}
+
+		@Test
+		public void sizeで要素数が取得できる() throws Exception {
+			assertThat(list.size(), is(5));
+			assertFalse(list.isEmpty());
+		}
+
+		@Test
+		public void getでSomeにくるまれた要素が取得できる() throws Exception {
+			assertThat(list.get(2), is(Option.of(3)));
+			assertTrue(list.get(5).isNone());
+			assertTrue(list.get(-1).isNone());
+		}
+
+		@Test
+		public void mapやfilterで新しいリストが作れる() throws Exception {
+			assertThat(list.map(i -> i * 10), is(ConsList.of(10, 20, 30, 40, 50)));
+			assertThat(list.filter(i -> i % 2 == 0), is(ConsList.of(2, 4)));
+			assertThat(list.flatMap(i -> ConsList.of(i, i)).size(), is(10));
+		}
+
+		@Test
+		public void foldLeftで畳み込める() throws Exception {
+			assertThat(list.foldLeft(0, (acc, i) -> acc + i), is(15));
+		}
+
+		@Test
+		public void reverseで逆順にできる() throws Exception {
+			assertThat(list.reverse(), is(ConsList.of(5, 4, 3, 2, 1)));
+		}
+
+		@Test
+		public void takeWhileで条件を満たさなくなるまでのリストが取得できる() throws Exception {
+			assertThat(list.takeWhile(i -> i < 3), is(ConsList.of(1, 2)));
+			assertThat(list.takeWhile(i -> true), is(sameInstance(list)));
+		}
+
+		@Test
+		public void dropWhileは残りのリストを共有する() throws Exception {
+			assertThat(list.dropWhile(i -> i < 3), is(sameInstance(list.tail().tail())));
+		}
+
+		@Test
+		public void streamやtoListに変換できる() throws Exception {
+			assertThat(list.stream().collect(Collectors.toList()), is(Arrays.asList(1, 2, 3, 4, 5)));
+			assertThat(list.toList(), is(Arrays.asList(1, 2, 3, 4, 5)));
+			assertThat(list.spliterator().getExactSizeIfKnown(), is(5L));
+		}
+
+		@Test
+		public void 中身が等しければ等価になる() throws Exception {
+			assertThat(list, is(ConsList.of(1, 2, 3, 4, 5)));
+			assertThat(list.hashCode(), is(Arrays.asList(1, 2, 3, 4, 5).hashCode()));
+			assertThat(list, is(not(ConsList.of(1, 2, 3))));
+		}
+
+		@Test
+		public void 大きなリストでもheadとtailで再帰的に処理できる() throws Exception {
+
+			ConsList<Integer> large = ConsList.from(IntStream.range(0, 1000000).boxed().collect(Collectors.toList()));
+
+			long sum = 0;
+			for (ConsList<Integer> l = large; !l.isEmpty(); l = l.tail()) {
+				sum += l.head();
+			}
+
+			assertThat(sum, is(999999L * 1000000L / 2));
+			assertThat(large.hashCode(), is(large.map(i -> i).hashCode()));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class 要素が存在しない時 {
+
+		ConsList<Integer> nil;
+
+		@Before
+		public void setUp() throws Exception {
+			this.nil = ConsList.nil();
+		}
+
+		@Test
+		public void nilは常に同じインスタンス() throws Exception {
+			assertThat(nil, is(sameInstance(ConsList.of())));
+			assertTrue(nil.isEmpty());
+			assertThat(nil.size(), is(0));
+		}
+
+		@Test(expected = NoSuchElementException.class)
+		public void headで例外が発生する() throws Exception {
+			nil.head();
+		}
+
+		@Test(expected = NoSuchElementException.class)
+		public void tailで例外が発生する() throws Exception {
+			nil.tail();
+		}
+
+		@Test
+		public void headOptionでNoneが取得できる() throws Exception {
+			assertTrue(nil.headOption().isNone());
+		}
+
+		@Test
+		public void 空のstreamにできる() throws Exception {
+			assertThat(nil.stream().count(), is(0L));
+		}
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class ExpiringLazyValTest {
+
+	static class ManualExecutor implements Executor {
+
+		final Queue<Runnable> tasks = new ArrayDeque<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		void runAll() {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				task.run();
+			}
+		}
+	}
+
+	@Test
+	public void getするまで評価されない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.build(count::incrementAndGet);
+
+		assertThat(count.get(), is(0));
+		assertFalse(lazyVal.isInitialized());
+
+		assertThat(lazyVal.get(), is(1));
+		assertTrue(lazyVal.isInitialized());
+	}
+
+	@Test
+	public void 期限内は再評価されない() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+		time.set(9);
+
+		assertThat(lazyVal.get(), is(1));
+	}
+
+	@Test
+	public void 期限が過ぎると再評価される() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+		time.set(10);
+
+		assertThat(lazyVal.get(), is(2));
+		time.set(19);
+		assertThat(lazyVal.get(), is(2));
+	}
+
+	@Test
+	public void 期限の直前にバックグラウンドで更新される() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ManualExecutor executor = new ManualExecutor();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.refreshAhead(3, TimeUnit.NANOSECONDS, executor)
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+
+		time.set(6);
+		assertThat(lazyVal.get(), is(1));
+		assertThat(executor.tasks.size(), is(0));
+
+		time.set(7);
+		assertThat(lazyVal.get(), is(1));
+		assertThat(lazyVal.get(), is(1));
+		assertThat(executor.tasks.size(), is(1));
+
+		executor.runAll();
+		assertThat(lazyVal.get(), is(2));
+
+		time.set(16);
+		assertThat(lazyVal.get(), is(2));
+	}
+
+	@Test
+	public void 更新中は期限が過ぎても古い値を返す() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ManualExecutor executor = new ManualExecutor();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.refreshAhead(3, TimeUnit.NANOSECONDS, executor)
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+		time.set(8);
+		lazyVal.get();
+
+		time.set(12);
+		assertThat(lazyVal.get(), is(1));
+		assertThat(count.get(), is(1));
+
+		executor.runAll();
+		assertThat(lazyVal.get(), is(2));
+	}
+
+	@Test
+	public void executorがあれば期限切れでも待たずに古い値を返して更新する() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ManualExecutor executor = new ManualExecutor();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.refreshAhead(3, TimeUnit.NANOSECONDS, executor)
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+
+		time.set(20);
+		assertThat(lazyVal.get(), is(1));
+		assertThat(lazyVal.get(), is(1));
+		assertThat(count.get(), is(1));
+		assertThat(executor.tasks.size(), is(1));
+
+		executor.runAll();
+		assertThat(lazyVal.get(), is(2));
+	}
+
+	@Test
+	public void 更新を受け付けられなければ期限切れの値は同期的に読み直す() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.refreshAhead(3, TimeUnit.NANOSECONDS, command -> {
+				throw new RejectedExecutionException();
+			})
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+
+		time.set(20);
+		assertThat(lazyVal.get(), is(2));
+	}
+
+	@Test
+	public void 更新に失敗しても古い値を使い続ける() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ManualExecutor executor = new ManualExecutor();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.refreshAhead(3, TimeUnit.NANOSECONDS, executor)
+			.ticker(time::get)
+			.build(() -> {
+				if (count.incrementAndGet() > 1) {
+					throw new IllegalStateException();
+				}
+				return 1;
+			});
+
+		lazyVal.get();
+		time.set(8);
+		lazyVal.get();
+		executor.runAll();
+
+		assertThat(lazyVal.get(), is(1));
+		executor.runAll();
+
+		time.set(10);
+		try {
+			lazyVal.get();
+			fail();
+		} catch (IllegalStateException e) {
+			// 期限切れ後の同期ロードで失敗が伝わる
+		}
+	}
+
+	@Test
+	public void invalidateすると次のgetで再評価される() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(1, TimeUnit.HOURS)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+		lazyVal.invalidate();
+
+		assertFalse(lazyVal.isInitialized());
+		assertThat(lazyVal.get(), is(2));
+	}
+
+	@Test
+	public void invalidateより前に始まった更新結果は捨てられる() throws Exception {
+
+		AtomicLong time = new AtomicLong();
+		AtomicInteger count = new AtomicInteger();
+		ManualExecutor executor = new ManualExecutor();
+		ExpiringLazyVal<Integer> lazyVal = ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS)
+			.refreshAhead(3, TimeUnit.NANOSECONDS, executor)
+			.ticker(time::get)
+			.build(count::incrementAndGet);
+
+		lazyVal.get();
+		time.set(8);
+		lazyVal.get();
+
+		lazyVal.invalidate();
+		executor.runAll();
+
+		assertFalse(lazyVal.isInitialized());
+		assertThat(lazyVal.get(), is(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void 期限より長い先行更新は指定できない() throws Exception {
+		ExpiringLazyVal.builder(10, TimeUnit.NANOSECONDS).refreshAhead(10, TimeUnit.NANOSECONDS, Runnable::run);
+	}
+}
@@ -21,14 +21,25 @@ import com.github.kamekoopa.j8utils.test.Tools.*;
 import com.github.kamekoopa.j8utils.utils.F3;
 import com.github.kamekoopa.j8utils.utils.F4;
 import com.github.kamekoopa.j8utils.utils.F5;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -65,6 +76,17 @@ public class FutureBuilderTest {
 			assertTrue(t.isSuccess());
 		}
 
+		@Test
+		public void CompletableFutureから構築できる() throws Exception {
+
+			CompletableFuture<String> cf = new CompletableFuture<>();
+			FutureBuilder.Future<Integer> future = this.builder.from(cf).map(String::length);
+
+			cf.complete("abc");
+
+			assertThat(future.tryGet().unsafeGet(), is(3));
+		}
+
 		@Test
 		public void map共変反変() throws Exception {
 
@@ -255,6 +277,96 @@ public class FutureBuilderTest {
 	}
 
 
+	@RunWith(JUnit4.class)
+	public static class 複数のFutureを合成する場合 {
+
+		FutureBuilder builder;
+
+		@Before
+		public void setup() throws Exception {
+			this.builder = FutureBuilder.buildWith(Executors.newFixedThreadPool(4));
+		}
+
+		@Test
+		public void apは全てのFutureを並列に待ち合わせる() throws Exception {
+
+			long start = System.nanoTime();
+
+			Future<String> fa = builder.run(() -> { sleep(500L); return "a"; });
+			Future<String> fb = builder.run(() -> { sleep(500L); return "b"; });
+			Future<String> fc = builder.run(() -> { sleep(500L); return "c"; });
+			Future<String> fd = builder.run(() -> { sleep(500L); return "d"; });
+
+			String result = fa.ap(fb, fc, fd, (a, b, c, d) -> a + b + c + d).tryGet().recover(Exception::getMessage);
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			assertThat(result, is("abcd"));
+			assertTrue(elapsed < 1500L);
+		}
+
+		@Test
+		public void zipで複数Futureの結果をタプルにできる() throws Exception {
+
+			Future<String> fa = builder.run(() -> "a");
+			Future<Integer> fb = builder.run(() -> 1);
+			Future<Boolean> fc = builder.run(() -> true);
+
+			Tuple3<String, Integer, Boolean> result = fa.zip(fb, fc).tryGet().recover(e -> null);
+
+			assertThat(result, is(Tuple3.of("a", 1, true)));
+		}
+
+		@Test
+		public void sequenceで大量のFutureを順序を保ったまままとめられる() throws Exception {
+
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int i = 0; i < 10000; i++) {
+				int n = i;
+				futures.add(builder.run(() -> n));
+			}
+
+			List<Integer> result = builder.sequence(futures).tryGet().recover(e -> null);
+
+			assertThat(result.size(), is(10000));
+			for (int i = 0; i < 10000; i++) {
+				assertThat(result.get(i), is(i));
+			}
+		}
+
+		@Test
+		public void sequenceで一部のFutureがエラー終了した場合Failureになる() throws Exception {
+
+			List<Future<String>> futures = new ArrayList<>();
+			futures.add(builder.run(() -> "a"));
+			futures.add(builder.run(() -> { throw new RuntimeException("error"); }));
+			futures.add(builder.run(() -> { sleep(500L); return "c"; }));
+
+			String result = builder.sequence(futures).tryGet().fold(Object::toString, Exception::getMessage);
+
+			assertThat(result, is("error"));
+		}
+
+		@Test
+		public void 空のリストをsequenceすると空のリストになる() throws Exception {
+
+			List<Future<String>> futures = new ArrayList<>();
+
+			List<String> result = builder.sequence(futures).tryGet().recover(e -> null);
+
+			assertTrue(result.isEmpty());
+		}
+
+		@Test
+		public void traverseで各要素をFutureに変換してまとめられる() throws Exception {
+
+			List<Integer> result = builder.traverse(Arrays.asList("a", "bb", "ccc"), s -> builder.run(s::length))
+				.tryGet().recover(e -> null);
+
+			assertThat(result, is(Arrays.asList(1, 2, 3)));
+		}
+	}
+
+
 	@RunWith(JUnit4.class)
 	public static class ForkJoinPoolで実行する場合 {
 
@@ -359,4 +471,566 @@ public class FutureBuilderTest {
 			assertThat(actual.tryGet().recover(Exception::getMessage), is("error"));
 		}
 	}
-}
\ No newline at end of file
+
+
+	@RunWith(JUnit4.class)
+	public static class 同一スレッドで継続を実行する場合 {
+
+		FutureBuilder builder;
+
+		@Before
+		public void setup() throws Exception {
+			this.builder = FutureBuilder.buildWith(Executors.newFixedThreadPool(3)).sameThread();
+		}
+
+		@Test
+		public void mapは完了したスレッドで実行される() throws Exception {
+
+			CountDownLatch latch = new CountDownLatch(1);
+			Future<Boolean> future = builder.run(() -> {
+				try { latch.await(); } catch (InterruptedException e) { throw new RuntimeException(e); }
+				return Thread.currentThread();
+			}).map(thread -> thread == Thread.currentThread());
+			latch.countDown();
+
+			assertTrue(future.tryGet().recover(e -> false));
+		}
+
+		@Test
+		public void futureでflatMapできる() throws Exception {
+
+			Integer result = builder.run(() -> "future")
+				.flatMap(s -> builder.run(s::length))
+				.tryGet().fold(Function.identity(), s -> -1);
+
+			assertThat(result, is(6));
+		}
+
+		@Test
+		public void 長いmapの連鎖でもスタックオーバーフローしない() throws Exception {
+
+			CountDownLatch latch = new CountDownLatch(1);
+			Future<Integer> future = builder.run(() -> {
+				try { latch.await(); } catch (InterruptedException e) { throw new RuntimeException(e); }
+				return 0;
+			});
+			for (int i = 0; i < 100000; i++) {
+				future = future.map(n -> n + 1);
+			}
+			latch.countDown();
+
+			assertThat(future.tryGet().recover(e -> -1), is(100000));
+		}
+
+		@Test
+		public void 長いflatMapの連鎖でもスタックオーバーフローしない() throws Exception {
+
+			CountDownLatch latch = new CountDownLatch(1);
+			Future<Integer> future = builder.run(() -> {
+				try { latch.await(); } catch (InterruptedException e) { throw new RuntimeException(e); }
+				return 0;
+			});
+			for (int i = 0; i < 100000; i++) {
+				future = future.flatMap(n -> builder.run(() -> n + 1));
+			}
+			latch.countDown();
+
+			assertThat(future.tryGet().recover(e -> -1), is(100000));
+		}
+
+		@Test
+		public void 途中で例外が発生した場合getで第二引数の関数が利用される() throws Exception {
+
+			String result = builder.run(() -> "future")
+				.<String>map(s -> {
+					throw new RuntimeException("error");
+				})
+				.tryGet().fold(s -> s, Exception::getMessage);
+
+			assertThat(result, is("error"));
+		}
+	}
+
+
+	@RunWith(JUnit4.class)
+	public static class タイムアウトを設定する場合 {
+
+		FutureBuilder builder;
+
+		@Before
+		public void setup() throws Exception {
+			this.builder = FutureBuilder.buildWith(Executors.newFixedThreadPool(2));
+		}
+
+		@Test
+		public void 桁あふれする長さのタイムアウトでは失敗しない() throws Exception {
+
+			Future<String> future = builder.delay(50, TimeUnit.MILLISECONDS, () -> "value").within(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+			assertThat(future.tryGet().unsafeGet(), is("value"));
+		}
+
+		@Test
+		public void 期限内に完了すれば値が得られる() throws Exception {
+
+			Try<String> result = builder.run(() -> "value").within(1, TimeUnit.SECONDS).tryGet();
+
+			assertThat(result.unsafeGet(), is("value"));
+		}
+
+		@Test
+		public void 期限内に完了しなければTimeoutExceptionで失敗する() throws Exception {
+
+			CountDownLatch never = new CountDownLatch(1);
+			long start = System.nanoTime();
+
+			Try<String> result = builder.run(() -> {
+				try {
+					never.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				return "value";
+			}).within(50, TimeUnit.MILLISECONDS).tryGet();
+
+			never.countDown();
+			assertTrue(result.isFailure());
+			assertThat(result.fold(v -> null, e -> e.getCause().getClass()), is((Object) TimeoutException.class));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+		}
+
+		@Test
+		public void 元の失敗はそのまま伝わる() throws Exception {
+
+			Try<String> result = builder.<String>run(() -> { throw new IllegalStateException(); })
+				.within(1, TimeUnit.SECONDS)
+				.tryGet();
+
+			assertThat(result.fold(v -> null, Object::getClass), is((Object) IllegalStateException.class));
+		}
+
+		@Test
+		public void 指定時間後に値を計算できる() throws Exception {
+
+			long start = System.nanoTime();
+
+			Try<String> result = builder.delay(50, TimeUnit.MILLISECONDS, () -> "delayed").tryGet();
+
+			assertThat(result.unsafeGet(), is("delayed"));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+		}
+	}
+
+
+	@RunWith(JUnit4.class)
+	public static class 取り消す場合 {
+
+		ExecutorService executor;
+		FutureBuilder builder;
+
+		@Before
+		public void setup() throws Exception {
+			this.executor = Executors.newFixedThreadPool(2);
+			this.builder = FutureBuilder.buildWith(executor);
+		}
+
+		@After
+		public void tearDown() throws Exception {
+			executor.shutdownNow();
+		}
+
+		@Test
+		public void 実行中の処理は割り込まれる() throws Exception {
+
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch interrupted = new CountDownLatch(1);
+
+			Future<String> future = builder.run(() -> {
+				started.countDown();
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+				return "value";
+			});
+
+			started.await();
+			assertTrue(future.cancel());
+
+			assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+			assertTrue(future.isCancelled());
+			assertThat(future.tryGet().fold(v -> null, Object::getClass), is((Object) CancellationException.class));
+		}
+
+		@Test
+		public void 後続を取り消すと上流まで取り消され未実行の継続は実行されない() throws Exception {
+
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			AtomicInteger mapped = new AtomicInteger();
+
+			Future<String> root = builder.run(() -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					// 取り消された
+				}
+				return "value";
+			});
+			Future<Integer> downstream = root.map(s -> mapped.incrementAndGet()).map(i -> i + 1);
+
+			started.await();
+			assertTrue(downstream.cancel());
+			release.countDown();
+
+			assertTrue(root.isCancelled());
+			assertTrue(root.tryGet().isFailure());
+			assertTrue(downstream.tryGet().isFailure());
+			assertThat(mapped.get(), is(0));
+		}
+
+		@Test
+		public void 他の後続が待っている上流は取り消されない() throws Exception {
+
+			CompletableFuture<String> source = new CompletableFuture<>();
+			Future<String> shared = builder.run(source::join);
+			Future<Integer> left = shared.map(String::length);
+			Future<String> right = shared.map(String::toUpperCase);
+			Future<Tuple2<String, String>> zipped = shared.zip(builder.run(() -> "other"));
+			Future<String> raced = builder.race(shared, builder.run(source::join));
+
+			assertTrue(left.cancel());
+			assertTrue(zipped.cancel());
+			assertTrue(raced.cancel());
+			assertThat(shared.isCancelled(), is(false));
+
+			source.complete("value");
+			assertThat(right.tryGet().unsafeGet(), is("VALUE"));
+			assertThat(shared.tryGet().unsafeGet(), is("value"));
+		}
+
+		@Test
+		public void 全ての後続が取り消されると上流も取り消される() throws Exception {
+
+			CompletableFuture<String> source = new CompletableFuture<>();
+			Future<String> shared = builder.run(source::join);
+			Future<Integer> left = shared.map(String::length);
+			Future<String> right = shared.map(String::toUpperCase);
+
+			assertTrue(left.cancel());
+			assertThat(shared.isCancelled(), is(false));
+			assertTrue(right.cancel());
+
+			assertTrue(shared.isCancelled());
+			source.complete("value");
+		}
+
+		@Test
+		public void flatMapで作られた内側のFutureも取り消される() throws Exception {
+
+			CountDownLatch innerStarted = new CountDownLatch(1);
+			CountDownLatch innerInterrupted = new CountDownLatch(1);
+
+			Future<String> future = builder.run(() -> "outer").flatMap(s -> builder.run(() -> {
+				innerStarted.countDown();
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					innerInterrupted.countDown();
+				}
+				return s;
+			}));
+
+			innerStarted.await();
+			assertTrue(future.cancel());
+
+			assertTrue(innerInterrupted.await(1, TimeUnit.SECONDS));
+		}
+
+		@Test
+		public void トークンで協調的に取り消しを検知できる() throws Exception {
+
+			CountDownLatch started = new CountDownLatch(1);
+			AtomicInteger iterations = new AtomicInteger();
+
+			Future<Integer> future = builder.runCancellable(token -> {
+				started.countDown();
+				while (!token.isCancelled()) {
+					iterations.incrementAndGet();
+					Thread.yield();
+				}
+				return iterations.get();
+			});
+
+			started.await();
+			future.cancel();
+
+			assertTrue(future.tryGet().isFailure());
+		}
+
+		@Test
+		public void 取り消し時にフックが呼ばれる() throws Exception {
+
+			CountDownLatch never = new CountDownLatch(1);
+			List<String> released = new ArrayList<>();
+
+			Future<String> root = builder.run(() -> {
+				try {
+					never.await();
+				} catch (InterruptedException e) {
+					// 取り消された
+				}
+				return "value";
+			}).onCancel(() -> released.add("root"));
+			Future<String> downstream = root.map(s -> s).onCancel(() -> released.add("downstream"));
+
+			downstream.cancel();
+
+			assertThat(released, is(Arrays.asList("downstream", "root")));
+			assertThat(downstream.cancel(), is(false));
+		}
+
+		@Test
+		public void 上流が完了済みでも実行待ちの継続は取り消せば実行されない() throws Exception {
+
+			ExecutorService single = Executors.newSingleThreadExecutor();
+			try {
+				FutureBuilder singleBuilder = FutureBuilder.buildWith(single);
+				CountDownLatch release = new CountDownLatch(1);
+				AtomicInteger applied = new AtomicInteger();
+
+				// 継続がキューで待つよう、唯一のスレッドを塞いでおく
+				single.execute(() -> {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+
+				Future<String> root = singleBuilder.from(CompletableFuture.completedFuture("value"));
+				Future<Integer> mapped = root.map(s -> applied.incrementAndGet());
+				Future<Integer> flatMapped = root.flatMap(s -> singleBuilder.run(applied::incrementAndGet));
+
+				assertTrue(mapped.cancel());
+				assertTrue(flatMapped.cancel());
+				release.countDown();
+
+				assertThat(mapped.tryGet().isFailure(), is(true));
+				assertThat(flatMapped.tryGet().isFailure(), is(true));
+				assertThat(singleBuilder.run(() -> "drained").tryGet().unsafeGet(), is("drained"));
+				assertThat(applied.get(), is(0));
+			} finally {
+				single.shutdownNow();
+			}
+		}
+
+		@Test
+		public void 完了済みのFutureは取り消せない() throws Exception {
+
+			Future<String> future = builder.run(() -> "value");
+			future.tryGet();
+
+			assertThat(future.cancel(), is(false));
+			assertThat(future.tryGet().unsafeGet(), is("value"));
+		}
+
+		@Test
+		public void raceは最初に成功した結果を返し残りを取り消す() throws Exception {
+
+			CountDownLatch interrupted = new CountDownLatch(1);
+
+			Future<String> slow = builder.run(() -> {
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+				return "slow";
+			});
+			Future<String> failed = builder.run(() -> {
+				throw new IllegalStateException("fail");
+			});
+			Future<String> fast = builder.delay(20, TimeUnit.MILLISECONDS, () -> "fast");
+
+			assertThat(builder.race(slow, failed, fast).tryGet().unsafeGet(), is("fast"));
+			assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+			assertTrue(slow.isCancelled());
+		}
+
+		@Test
+		public void raceは全て失敗すると最後の失敗になる() throws Exception {
+
+			Future<String> first = builder.run(() -> {
+				throw new IllegalStateException("first");
+			});
+			Future<String> second = builder.delay(20, TimeUnit.MILLISECONDS, () -> {
+				throw new IllegalArgumentException("second");
+			});
+
+			assertThat(builder.race(first, second).tryGet().fold(v -> null, Exception::getMessage), is("second"));
+		}
+
+		@Test
+		public void fromで包んだCompletableFutureは取り消されない() throws Exception {
+
+			CompletableFuture<String> source = new CompletableFuture<>();
+			Future<String> future = builder.from(source);
+
+			assertTrue(future.cancel());
+
+			assertThat(source.isCancelled(), is(false));
+			source.complete("value");
+			assertThat(builder.from(source).tryGet().unsafeGet(), is("value"));
+		}
+	}
+
+
+	@RunWith(JUnit4.class)
+	public static class 完了を非同期に受け取る場合 {
+
+		ExecutorService executor;
+		FutureBuilder builder;
+
+		@Before
+		public void setup() throws Exception {
+			this.executor = Executors.newFixedThreadPool(2);
+			this.builder = FutureBuilder.buildWith(executor);
+		}
+
+		@After
+		public void tearDown() throws Exception {
+			executor.shutdownNow();
+		}
+
+		@Test
+		public void 完了時にコールバックが成功で呼ばれる() throws Exception {
+
+			CountDownLatch release = new CountDownLatch(1);
+			CountDownLatch called = new CountDownLatch(1);
+			AtomicReference<Try<String>> received = new AtomicReference<>();
+
+			builder.run(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				return "value";
+			}).onComplete(t -> {
+				received.set(t);
+				called.countDown();
+			});
+
+			assertThat(received.get() == null, is(true));
+			release.countDown();
+
+			assertTrue(called.await(1, TimeUnit.SECONDS));
+			assertThat(received.get().unsafeGet(), is("value"));
+		}
+
+		@Test
+		public void 失敗時にコールバックが例外で呼ばれる() throws Exception {
+
+			CountDownLatch called = new CountDownLatch(1);
+			AtomicReference<Try<String>> received = new AtomicReference<>();
+
+			builder.<String>run(() -> {
+				throw new IllegalStateException("fail");
+			}).onComplete(t -> {
+				received.set(t);
+				called.countDown();
+			});
+
+			assertTrue(called.await(1, TimeUnit.SECONDS));
+			assertThat(received.get().fold(v -> null, Object::getClass), is((Object) IllegalStateException.class));
+		}
+
+		@Test
+		public void toTryで失敗が値として取り出せる() throws Exception {
+
+			Future<Try<String>> future = builder.<String>run(() -> {
+				throw new IllegalStateException("fail");
+			}).toTry();
+
+			Try<String> result = future.tryGet().unsafeGet();
+			assertThat(result.isFailure(), is(true));
+			assertThat(result.fold(v -> null, Exception::getMessage), is("fail"));
+		}
+
+		@Test
+		public void recoverで失敗を値に置き換えられる() throws Exception {
+
+			Future<String> failed = builder.<String>run(() -> {
+				throw new IllegalStateException("fail");
+			});
+
+			assertThat(failed.recover(Exception::getMessage).tryGet().unsafeGet(), is("fail"));
+			assertThat(builder.run(() -> "value").recover(e -> "recovered").tryGet().unsafeGet(), is("value"));
+		}
+
+		@Test
+		public void recoverWithで別のFutureに切り替えられる() throws Exception {
+
+			Future<String> failed = builder.<String>run(() -> {
+				throw new IllegalStateException("fail");
+			});
+
+			Future<String> recovered = failed.recoverWith(e -> builder.run(() -> "fallback"));
+			Future<String> failedAgain = failed.recoverWith(e -> builder.<String>run(() -> {
+				throw new IllegalArgumentException("again");
+			}));
+
+			assertThat(recovered.tryGet().unsafeGet(), is("fallback"));
+			assertThat(failedAgain.tryGet().fold(v -> null, Object::getClass), is((Object) IllegalArgumentException.class));
+		}
+
+		@Test
+		public void transformで成功と失敗をまとめて変換できる() throws Exception {
+
+			Function<Try<String>, Try<Integer>> length = t -> t.fold(
+				v -> Try.success(v.length()),
+				e -> Try.failureOf("wrapped: " + e.getMessage())
+			);
+
+			Future<Integer> success = builder.run(() -> "value").transform(length);
+			Future<Integer> failure = builder.<String>run(() -> {
+				throw new IllegalStateException("fail");
+			}).transform(length);
+
+			assertThat(success.tryGet().unsafeGet(), is(5));
+			assertThat(failure.tryGet().fold(v -> null, Exception::getMessage), is("wrapped: fail"));
+		}
+
+		@Test
+		public void 取り消した後は回復処理を実行しない() throws Exception {
+
+			CountDownLatch started = new CountDownLatch(1);
+			AtomicInteger recovered = new AtomicInteger();
+
+			Future<String> root = builder.run(() -> {
+				started.countDown();
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					// 取り消された
+				}
+				return "value";
+			});
+			Future<String> future = root.recover(e -> {
+				recovered.incrementAndGet();
+				return "recovered";
+			});
+
+			started.await();
+			assertTrue(future.cancel());
+
+			assertThat(root.tryGet().isFailure(), is(true));
+			assertThat(future.tryGet().isFailure(), is(true));
+			sleep(50);
+			assertThat(recovered.get(), is(0));
+		}
+	}
+}
@@ -24,7 +24,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -68,6 +74,65 @@ public class LazyValTest {
 		assertThat(date1, is(sameInstance(date2)));
 	}
 
+	@Test
+	public void 評価結果がnullでも再評価されない() throws Exception {
+
+		int[] count = { 0 };
+		LazyVal<String> lazyVal = LazyVal.of(() -> {
+			count[0]++;
+			return null;
+		});
+
+		lazyVal.get();
+		lazyVal.get();
+
+		assertThat(count[0], is(1));
+	}
+
+	@Test
+	public void 評価時に例外が発生した場合は次回getで再評価される() throws Exception {
+
+		int[] count = { 0 };
+		LazyVal<String> lazyVal = LazyVal.of(() -> {
+			if (count[0]++ == 0) {
+				throw new Exception();
+			}
+			return "value";
+		});
+
+		try {
+			lazyVal.gete();
+		} catch (Exception ignored) {}
+
+		assertThat(lazyVal.get(), is("value"));
+		assertThat(count[0], is(2));
+	}
+
+	@Test
+	public void 複数スレッドから同時にgetしても一度しか評価されない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		LazyVal<Integer> lazyVal = LazyVal.of(() -> {
+			Thread.sleep(100L);
+			return count.incrementAndGet();
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(lazyVal::get));
+			}
+			for (Future<Integer> result : results) {
+				assertThat(result.get(), is(1));
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(count.get(), is(1));
+	}
+
 	@Test(expected = RuntimeException.class)
 	public void 値を遅延提供するsupplierが例外を投げる時get時に実行時例外にラップされてスローされる() throws Exception {
 		LazyVal.of(() -> { throw new Exception(); }).get();
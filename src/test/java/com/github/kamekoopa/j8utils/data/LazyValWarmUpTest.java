@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class LazyValWarmUpTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void 登録した値が全て初期化され初期化時間が報告される() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		LazyVal<Integer> a = LazyVal.of(count::incrementAndGet);
+		LazyVal<Integer> b = LazyVal.of(count::incrementAndGet);
+
+		Try<Map<String, Duration>> result = LazyValWarmUp.create()
+			.register("a", a)
+			.register("b", b)
+			.run(executor);
+
+		assertTrue(result.isSuccess());
+		Map<String, Duration> durations = result.unsafeGet();
+		assertThat(new ArrayList<>(durations.keySet()), is(contains("a", "b")));
+		assertThat(count.get(), is(2));
+	}
+
+	@Test
+	public void 依存先が先に初期化される() throws Exception {
+
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		LazyVal<String> config = LazyVal.of(() -> { Thread.sleep(50); order.add("config"); return "config"; });
+		LazyVal<String> db = LazyVal.of(() -> { order.add("db"); return "db"; });
+		LazyVal<String> cache = LazyVal.of(() -> { order.add("cache"); return "cache"; });
+		LazyVal<String> service = LazyVal.of(() -> { order.add("service"); return "service"; });
+
+		Try<Map<String, Duration>> result = LazyValWarmUp.create()
+			.register("service", service, "db", "cache")
+			.register("db", db, "config")
+			.register("cache", cache, "config")
+			.register("config", config)
+			.run(executor);
+
+		assertTrue(result.isSuccess());
+		assertThat(order.get(0), is("config"));
+		assertThat(order.get(3), is("service"));
+	}
+
+	@Test
+	public void 独立した値は並列に初期化される() throws Exception {
+
+		List<LazyVal<Integer>> values = new ArrayList<>();
+		LazyValWarmUp warmUp = LazyValWarmUp.create();
+		for (int i = 0; i < 4; i++) {
+			LazyVal<Integer> value = LazyVal.of(() -> { Thread.sleep(200); return 1; });
+			values.add(value);
+			warmUp.register("v" + i, value);
+		}
+
+		long start = System.nanoTime();
+		assertTrue(warmUp.run(executor).isSuccess());
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertThat(elapsedMillis, is(lessThan(600L)));
+	}
+
+	@Test
+	public void 一つでも失敗すると失敗した値の名前とともに失敗する() throws Exception {
+
+		AtomicInteger dependentCount = new AtomicInteger();
+		LazyVal<String> broken = LazyVal.of(() -> { throw new IllegalStateException("broken"); });
+		LazyVal<Integer> dependent = LazyVal.of(dependentCount::incrementAndGet);
+
+		Try<Map<String, Duration>> result = LazyValWarmUp.create()
+			.register("broken", broken)
+			.register("dependent", dependent, "broken")
+			.run(executor);
+
+		assertTrue(result.isFailure());
+		result.recover(e -> {
+			assertThat(e, is(instanceOf(LazyValWarmUp.WarmUpFailure.class)));
+			assertThat(((LazyValWarmUp.WarmUpFailure) e).name, is("broken"));
+			assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+			return null;
+		});
+		assertThat(dependentCount.get(), is(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void 循環した依存は登録できても開始できない() throws Exception {
+
+		LazyValWarmUp.create()
+			.register("a", LazyVal.of(() -> 1), "b")
+			.register("b", LazyVal.of(() -> 2), "a")
+			.start(executor);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void 未登録の依存先は指定できない() throws Exception {
+
+		LazyValWarmUp.create()
+			.register("a", LazyVal.of(() -> 1), "missing")
+			.start(executor);
+	}
+
+	@Test
+	public void 何も登録しなければ空の結果になる() throws Exception {
+
+		Try<Map<String, Duration>> result = LazyValWarmUp.create().run(executor);
+
+		assertThat(result.unsafeGet().isEmpty(), is(true));
+	}
+}
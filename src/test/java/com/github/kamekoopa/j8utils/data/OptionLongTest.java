@@ -0,0 +1,238 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Enclosed.class)
+public class OptionLongTest {
+
+	@RunWith(JUnit4.class)
+	public static class 値がある時 {
+
+		OptionLong some;
+
+		@Before
+		public void setUp() throws Exception {
+			this.some = OptionLong.of(1L);
+		}
+
+		@Test
+		public void someを表す() throws Exception {
+			assertTrue(some.isSome());
+			assertFalse(some.isNone());
+		}
+
+		@Test
+		public void filterでpredicateがtrueならそのままSome() throws Exception {
+			assertThat(some.filter(a -> a == 1L), is(sameInstance(some)));
+		}
+
+		@Test
+		public void filterでpredicateがfalseならNone() throws Exception {
+			assertTrue(some.filter(a -> a != 1L).isNone());
+		}
+
+		@Test
+		public void mapで値を写せる() throws Exception {
+			assertThat(some.map(a -> a + 1L), is(OptionLong.of(2L)));
+		}
+
+		@Test
+		public void mapToIntで値を写せる() throws Exception {
+			assertThat(some.mapToInt(a -> (int) a), is(OptionInt.of(1)));
+		}
+
+		@Test
+		public void mapToDoubleで値を写せる() throws Exception {
+			assertThat(some.mapToDouble(a -> (double) a), is(OptionDouble.of(1.0)));
+		}
+
+		@Test
+		public void mapToObjでOptionに写せる() throws Exception {
+			assertThat(some.mapToObj(String::valueOf), is(Option.of(String.valueOf(1L))));
+		}
+
+		@Test
+		public void flatMapで値を写せる() throws Exception {
+			assertThat(some.flatMap(a -> OptionLong.of(a + 1L)), is(OptionLong.of(2L)));
+		}
+
+		@Test
+		public void flatMapでnoneにできる() throws Exception {
+			assertTrue(some.flatMap(a -> OptionLong.none()).isNone());
+		}
+
+		@Test
+		public void foldで値に関数が適用される() throws Exception {
+			assertThat(some.fold(() -> "none", String::valueOf), is(String.valueOf(1L)));
+			assertThat(some.foldLong(() -> 0L, a -> a + 1L), is(2L));
+		}
+
+		@Test
+		public void getOrElseでくるまれている値を取得できる() throws Exception {
+			assertThat(some.getOrElse(() -> 0L), is(1L));
+		}
+
+		@Test
+		public void unsafeGetで値が取れる() throws Exception {
+			assertThat(some.unsafeGet(), is(1L));
+		}
+
+		@Test
+		public void peekで中身を覗ける() throws Exception {
+			long[] value = { 0L };
+			some.peek(() -> {}, a -> value[0] = a);
+			assertThat(value[0], is(1L));
+		}
+
+		@Test
+		public void 中身の値が等しければ等価になる() throws Exception {
+			assertThat(some, is(OptionLong.of(1L)));
+			assertThat(some.hashCode(), is(OptionLong.of(1L).hashCode()));
+		}
+
+		@Test
+		public void noneとは等しくない() throws Exception {
+			assertThat(some, is(not(OptionLong.none())));
+		}
+
+		@Test
+		public void 要素1個のstreamにできる() throws Exception {
+			assertThat(some.stream().toArray(), is(new long[]{ 1L }));
+		}
+
+		@Test
+		public void apで複数のsomeに関数を適用できる() throws Exception {
+			assertThat(some.ap(OptionLong.of(1L), (a, b) -> a + b), is(OptionLong.of(2L)));
+		}
+
+		@Test
+		public void apで渡すoptionがnoneならnone() throws Exception {
+			assertTrue(some.ap(OptionLong.none(), (a, b) -> a + b).isNone());
+		}
+
+		@Test
+		public void ifEmptyやorで自分自身が取得できる() throws Exception {
+			assertThat(some.ifEmpty(() -> 0L), is(sameInstance(some)));
+			assertThat(some.or(() -> OptionLong.of(0L)), is(sameInstance(some)));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class 値がない時 {
+
+		OptionLong none;
+
+		@Before
+		public void setUp() throws Exception {
+			this.none = OptionLong.none();
+		}
+
+		@Test
+		public void noneは常に同じインスタンス() throws Exception {
+			assertThat(none, is(sameInstance(OptionLong.none())));
+			assertThat(OptionLong.from(OptionalLong.empty()), is(sameInstance(none)));
+		}
+
+		@Test
+		public void noneを表す() throws Exception {
+			assertTrue(none.isNone());
+			assertFalse(none.isSome());
+		}
+
+		@Test
+		public void filterやmapしてもnoneのまま() throws Exception {
+			assertTrue(none.filter(a -> true).isNone());
+			assertTrue(none.map(a -> a + 1L).isNone());
+			assertTrue(none.mapToObj(String::valueOf).isNone());
+			assertTrue(none.flatMap(OptionLong::of).isNone());
+		}
+
+		@Test
+		public void foldでnone側の値が取得できる() throws Exception {
+			assertThat(none.fold(() -> "none", String::valueOf), is("none"));
+			assertThat(none.foldLong(() -> 0L, a -> a + 1L), is(0L));
+		}
+
+		@Test
+		public void getOrElseでデフォルト値に指定した方の値が取れる() throws Exception {
+			assertThat(none.getOrElse(() -> 1L), is(1L));
+		}
+
+		@Test(expected = NoSuchElementException.class)
+		public void unsafeGetで例外がスローされる() throws Exception {
+			none.unsafeGet();
+		}
+
+		@Test
+		public void peekで中身を覗ける() throws Exception {
+			boolean[] called = { false };
+			none.peek(() -> called[0] = true, a -> {});
+			assertTrue(called[0]);
+		}
+
+		@Test
+		public void 要素0個のstreamにできる() throws Exception {
+			assertThat(none.stream().count(), is(0L));
+		}
+
+		@Test
+		public void apで関数適用をしても全体としてnone() throws Exception {
+			assertTrue(none.ap(OptionLong.of(1L), (a, b) -> a + b).isNone());
+		}
+
+		@Test
+		public void ifEmptyやorで引数の方の値が取得できる() throws Exception {
+			assertThat(none.ifEmpty(() -> 1L), is(OptionLong.of(1L)));
+			assertThat(none.or(() -> OptionLong.of(1L)), is(OptionLong.of(1L)));
+		}
+	}
+
+	@RunWith(JUnit4.class)
+	public static class 変換 {
+
+		@Test
+		public void Optionと相互に変換できる() throws Exception {
+			assertThat(OptionLong.of(1L).toOption(), is(Option.of(1L)));
+			assertTrue(OptionLong.none().toOption().isNone());
+			assertThat(OptionLong.from(Option.of(1L)), is(OptionLong.of(1L)));
+			assertTrue(OptionLong.from(Option.<Long>none()).isNone());
+		}
+
+		@Test
+		public void OptionalLongと相互に変換できる() throws Exception {
+			assertThat(OptionLong.of(1L).toOptional(), is(OptionalLong.of(1L)));
+			assertThat(OptionLong.none().toOptional(), is(OptionalLong.empty()));
+			assertThat(OptionLong.from(OptionalLong.of(1L)), is(OptionLong.of(1L)));
+		}
+	}
+}
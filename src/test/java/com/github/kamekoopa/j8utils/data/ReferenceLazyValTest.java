@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ReferenceLazyValTest {
+
+	@Test
+	public void getするまで評価されない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		ReferenceLazyVal<Integer> lazyVal = ReferenceLazyVal.soft(count::incrementAndGet);
+
+		assertThat(count.get(), is(0));
+		assertFalse(lazyVal.isAvailable());
+	}
+
+	@Test
+	public void 回収されなければ同じ値が取得できる() throws Exception {
+
+		ReferenceLazyVal<Object> lazyVal = ReferenceLazyVal.soft(Object::new);
+
+		Object value1 = lazyVal.get();
+		Object value2 = lazyVal.get();
+
+		assertThat(value1, is(sameInstance(value2)));
+		assertThat(lazyVal.recomputeCount(), is(0L));
+	}
+
+	@Test
+	public void 評価結果がnullでも再評価されない() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		ReferenceLazyVal<Object> lazyVal = ReferenceLazyVal.weak(() -> { count.incrementAndGet(); return null; });
+
+		assertThat(lazyVal.get(), is(nullValue()));
+		System.gc();
+		assertThat(lazyVal.get(), is(nullValue()));
+
+		assertThat(count.get(), is(1));
+	}
+
+	@Test
+	public void 回収されると再計算され回数が記録される() throws Exception {
+
+		AtomicInteger count = new AtomicInteger();
+		ReferenceLazyVal<byte[]> lazyVal = ReferenceLazyVal.weak(() -> {
+			count.incrementAndGet();
+			return new byte[1024];
+		});
+
+		lazyVal.get();
+		for (int i = 0; i < 50 && lazyVal.reclaimCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertThat(lazyVal.reclaimCount(), is(1L));
+		assertFalse(lazyVal.isAvailable());
+
+		assertThat(lazyVal.get().length, is(1024));
+		assertTrue(lazyVal.isAvailable());
+		assertThat(lazyVal.recomputeCount(), is(1L));
+		assertThat(count.get(), is(2));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void 評価中の例外はそのまま投げられる() throws Exception {
+
+		ReferenceLazyVal<Object> lazyVal = ReferenceLazyVal.soft(() -> { throw new IllegalStateException(); });
+
+		lazyVal.get();
+	}
+}
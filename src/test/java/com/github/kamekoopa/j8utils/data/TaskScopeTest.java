@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.data;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class TaskScopeTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final FutureBuilder builder = FutureBuilder.buildWith(executor);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	public void 全ての子が成功すると結果がfork順に返る() throws Exception {
+
+		try (TaskScope<Integer> scope = TaskScope.open(builder)) {
+			scope.fork(() -> {
+				sleep(30);
+				return 1;
+			});
+			scope.fork(() -> 2);
+			scope.fork(() -> 3);
+
+			assertThat(scope.join().unsafeGet(), is(Arrays.asList(1, 2, 3)));
+		}
+	}
+
+	@Test
+	public void 一つが失敗すると残りの子は取り消される() throws Exception {
+
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		try (TaskScope<String> scope = TaskScope.open(builder)) {
+			FutureBuilder.Future<String> slow = scope.fork(() -> {
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+				return "slow";
+			});
+			scope.fork(() -> {
+				sleep(20);
+				throw new IllegalStateException("fail");
+			});
+
+			Try<List<String>> result = scope.join();
+
+			assertThat(result.fold(v -> null, Exception::getMessage), is("fail"));
+			assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+			assertThat(slow.tryGet().isFailure(), is(true));
+		}
+	}
+
+	@Test
+	public void 割り込みに応じない子も止まるまでjoinは戻らない() throws Exception {
+
+		AtomicInteger stopped = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+
+		try (TaskScope<String> scope = TaskScope.open(builder)) {
+			scope.fork(() -> {
+				started.countDown();
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+				while (System.nanoTime() < deadline) {
+					// 割り込みを無視して回り続ける
+					Thread.yield();
+				}
+				stopped.incrementAndGet();
+				return "stubborn";
+			});
+			started.await();
+			scope.fork(() -> {
+				throw new IllegalStateException("fail");
+			});
+
+			assertTrue(scope.join().isFailure());
+			assertThat(stopped.get(), is(1));
+		}
+	}
+
+	@Test
+	public void WAIT_ALLでは失敗があっても全ての子の完了を待つ() throws Exception {
+
+		AtomicInteger completed = new AtomicInteger();
+
+		try (TaskScope<String> scope = TaskScope.builder(builder).policy(TaskScope.Policy.WAIT_ALL).open()) {
+			scope.fork(() -> {
+				throw new IllegalStateException("fail");
+			});
+			scope.fork(() -> {
+				sleep(50);
+				completed.incrementAndGet();
+				return "slow";
+			});
+
+			Try<List<String>> result = scope.join();
+
+			assertThat(result.fold(v -> null, Exception::getMessage), is("fail"));
+			assertThat(completed.get(), is(1));
+		}
+	}
+
+	@Test
+	public void 同時に実行される子の数が制限される() throws Exception {
+
+		AtomicInteger current = new AtomicInteger();
+		AtomicInteger max = new AtomicInteger();
+
+		try (TaskScope<Integer> scope = TaskScope.builder(builder).maxConcurrency(2).open()) {
+			for (int i = 0; i < 6; i++) {
+				int n = i;
+				scope.fork(() -> {
+					max.accumulateAndGet(current.incrementAndGet(), Math::max);
+					sleep(20);
+					current.decrementAndGet();
+					return n;
+				});
+			}
+
+			assertThat(scope.join().unsafeGet(), is(Arrays.asList(0, 1, 2, 3, 4, 5)));
+		}
+
+		assertThat(max.get(), is(2));
+	}
+
+	@Test
+	public void 閉じると子の完了を待つ() throws Exception {
+
+		AtomicInteger completed = new AtomicInteger();
+
+		try (TaskScope<String> scope = TaskScope.open(builder)) {
+			scope.fork(() -> {
+				sleep(50);
+				completed.incrementAndGet();
+				return "value";
+			});
+		}
+
+		assertThat(completed.get(), is(1));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void 閉じた後はforkできない() throws Exception {
+
+		TaskScope<String> scope = TaskScope.open(builder);
+		scope.close();
+
+		scope.fork(() -> "value");
+	}
+}
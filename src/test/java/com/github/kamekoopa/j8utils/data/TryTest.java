@@ -17,6 +17,7 @@
 package com.github.kamekoopa.j8utils.data;
 
 import com.github.kamekoopa.j8utils.utils.*;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
@@ -30,6 +31,7 @@ import java.util.function.Predicate;
 import static com.github.kamekoopa.j8utils.test.Tools.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -464,4 +466,82 @@ public class TryTest {
 			assertThat(mut[0], is("failure"));
 		}
 	}
-}
\ No newline at end of file
+
+	@RunWith(JUnit4.class)
+	public static class 軽量な失敗 {
+
+		@After
+		public void tearDown() throws Exception {
+			StackTracePolicy.setGlobal(StackTracePolicy.always());
+		}
+
+		@Test
+		public void 失敗をmapやflatMapしても同じインスタンスのまま() throws Exception {
+
+			Try<String> failure = Try.failure(new Exception());
+
+			assertThat(failure.map(String::length), is(sameInstance(failure)));
+			assertThat(failure.failableMap(String::length), is(sameInstance(failure)));
+			assertThat(failure.flatMap(s -> Try.success(s.length())), is(sameInstance(failure)));
+		}
+
+		@Test
+		public void StacklessExceptionはスタックトレースを持たない() throws Exception {
+
+			StacklessException e = new StacklessException("error");
+
+			assertThat(e.getStackTrace().length, is(0));
+			assertThat(e.getMessage(), is("error"));
+		}
+
+		@Test
+		public void StacklessExceptionは使いまわしても抑制された例外が溜まらない() throws Exception {
+
+			StacklessException e = new StacklessException("error");
+			e.addSuppressed(new Exception());
+
+			assertThat(e.getSuppressed().length, is(0));
+		}
+
+		@Test
+		public void neverを指定するとスタックトレースを取得しない() throws Exception {
+
+			Exception e = Try.failureOf("error", StackTracePolicy.never()).toEither().fold(l -> l, r -> null);
+
+			assertThat(e.getStackTrace().length, is(0));
+			assertThat(e.getMessage(), is("error"));
+			assertTrue(e instanceof StacklessException);
+		}
+
+		@Test
+		public void alwaysを指定するとスタックトレースを取得する() throws Exception {
+
+			Exception e = Try.failureOf("error", StackTracePolicy.always()).toEither().fold(l -> l, r -> null);
+
+			assertTrue(e.getStackTrace().length > 0);
+			assertFalse(e instanceof StacklessException);
+		}
+
+		@Test
+		public void sampledで指定した割合だけスタックトレースを取得する() throws Exception {
+
+			assertFalse(StackTracePolicy.sampled(0.0).capture());
+			assertTrue(StackTracePolicy.sampled(1.0).capture());
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void sampledに範囲外の割合は指定できない() throws Exception {
+			StackTracePolicy.sampled(1.5);
+		}
+
+		@Test
+		public void 指定しない場合はグローバルなポリシーに従う() throws Exception {
+
+			StackTracePolicy.setGlobal(StackTracePolicy.never());
+
+			Exception e = Try.failureOf("error").toEither().fold(l -> l, r -> null);
+
+			assertThat(e.getStackTrace().length, is(0));
+		}
+	}
+}
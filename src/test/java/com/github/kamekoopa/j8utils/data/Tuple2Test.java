@@ -51,6 +51,17 @@ public class Tuple2Test {
 		assertThat(t1, is(not(t2)));
 	}
 
+	@Test
+	public void nullを含んでいても比較できる() throws Exception {
+
+		Tuple2<String, Integer> t1 = Tuple2.of(null, 2);
+		Tuple2<String, Integer> t2 = Tuple2.of(null, 2);
+
+		assertThat(t1, is(t2));
+		assertThat(t1.hashCode(), is(t2.hashCode()));
+		assertThat(t1, is(not(Tuple2.of("one", 2))));
+	}
+
 	@Test
 	public void mod1で左側を変更できる() throws Exception {
 
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Try;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(JUnit4.class)
+public class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	private CircuitBreaker.Builder breaker() {
+		return CircuitBreaker.builder("backend")
+			.windowSize(4)
+			.minimumCalls(4)
+			.failureRateThreshold(0.5)
+			.waitDurationInOpen(10, TimeUnit.SECONDS)
+			.permittedCallsInHalfOpen(2)
+			.ticker(now::get);
+	}
+
+	private static Try<String> succeed(CircuitBreaker breaker) {
+		return breaker.call(() -> "value");
+	}
+
+	private static Try<String> fail(CircuitBreaker breaker) {
+		return breaker.call(() -> {
+			throw new IOException("fail");
+		});
+	}
+
+	private static Object failureClass(Try<?> t) {
+		return t.fold(v -> null, Object::getClass);
+	}
+
+	@Test
+	public void 失敗率が閾値に達すると開き呼び出しを即座に拒否する() throws Exception {
+
+		CircuitBreaker breaker = breaker().build();
+		succeed(breaker);
+		succeed(breaker);
+		fail(breaker);
+		assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+
+		fail(breaker);
+		assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+		AtomicInteger called = new AtomicInteger();
+		Try<String> rejected = breaker.call(() -> {
+			called.incrementAndGet();
+			return "value";
+		});
+
+		assertThat(failureClass(rejected), is((Object) CallNotPermittedException.class));
+		assertThat(rejected.fold(v -> -1, e -> e.getStackTrace().length), is(0));
+		assertThat(called.get(), is(0));
+		assertThat(breaker.notPermittedCount(), is(1L));
+	}
+
+	@Test
+	public void 最小呼び出し数に満たないうちは開かない() throws Exception {
+
+		CircuitBreaker breaker = breaker().build();
+		fail(breaker);
+		fail(breaker);
+		fail(breaker);
+
+		assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+		assertThat(breaker.failureRate(), is(1.0));
+	}
+
+	@Test
+	public void 待機時間の後は半開になり成功が続けば閉じる() throws Exception {
+
+		CircuitBreaker breaker = breaker().build();
+		for (int i = 0; i < 4; i++) {
+			fail(breaker);
+		}
+		assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		assertThat(succeed(breaker).isSuccess(), is(true));
+		assertThat(breaker.state(), is(CircuitBreaker.State.HALF_OPEN));
+
+		assertThat(succeed(breaker).isSuccess(), is(true));
+		assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+	}
+
+	@Test
+	public void 半開で失敗が続くと再び開く() throws Exception {
+
+		CircuitBreaker breaker = breaker().build();
+		for (int i = 0; i < 4; i++) {
+			fail(breaker);
+		}
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		fail(breaker);
+		fail(breaker);
+
+		assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+		assertThat(failureClass(succeed(breaker)), is((Object) CallNotPermittedException.class));
+	}
+
+	@Test
+	public void 遅い呼び出しの割合が閾値に達すると開く() throws Exception {
+
+		CircuitBreaker breaker = breaker()
+			.slowCallDuration(1, TimeUnit.SECONDS)
+			.slowCallRateThreshold(0.5)
+			.build();
+
+		succeed(breaker);
+		succeed(breaker);
+		for (int i = 0; i < 2; i++) {
+			breaker.call(() -> {
+				now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+				return "slow";
+			});
+		}
+
+		assertThat(breaker.slowCallRate(), is(0.5));
+		assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+	}
+
+	@Test
+	public void 記録対象外の例外は失敗として数えない() throws Exception {
+
+		CircuitBreaker breaker = breaker().recordOn(e -> e instanceof IOException).build();
+		for (int i = 0; i < 4; i++) {
+			breaker.call(() -> {
+				throw new IllegalArgumentException("bad request");
+			});
+		}
+
+		assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+		assertThat(breaker.failureRate(), is(0.0));
+	}
+
+	@Test
+	public void FutureBuilder経由の呼び出しも集計され開くと即座に失敗する() throws Exception {
+
+		FutureBuilder builder = FutureBuilder.buildWith(executor);
+		CircuitBreaker breaker = breaker().build();
+
+		for (int i = 0; i < 4; i++) {
+			breaker.<String>run(builder, () -> {
+				throw new IllegalStateException("fail");
+			}).tryGet();
+		}
+		// onComplete は非同期に集計されるので、開くまで待つ
+		for (int i = 0; i < 100 && breaker.state() != CircuitBreaker.State.OPEN; i++) {
+			Thread.sleep(10);
+		}
+
+		assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+		assertThat(failureClass(breaker.run(builder, () -> "value").tryGet()), is((Object) CallNotPermittedException.class));
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class HedgingTest {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+	private final FutureBuilder builder = FutureBuilder.buildWith(executor);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static String sleepThenReturn(long millis, String value, CountDownLatch interrupted) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			interrupted.countDown();
+		}
+		return value;
+	}
+
+	@Test
+	public void 遅延内に完了すればヘッジは発火しない() throws Exception {
+
+		Hedging hedging = Hedging.builder(builder).delay(1, TimeUnit.SECONDS).build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		FutureBuilder.Future<String> future = hedging.run(() -> {
+			attempts.incrementAndGet();
+			return "value";
+		});
+
+		assertThat(future.tryGet().unsafeGet(), is("value"));
+		assertThat(attempts.get(), is(1));
+		assertThat(hedging.callCount(), is(1L));
+		assertThat(hedging.hedgesFired(), is(0L));
+	}
+
+	@Test
+	public void 遅い試行はヘッジに追い越され取り消される() throws Exception {
+
+		Hedging hedging = Hedging.builder(builder).delay(20, TimeUnit.MILLISECONDS).build();
+		AtomicInteger attempts = new AtomicInteger();
+		CountDownLatch interrupted = new CountDownLatch(1);
+
+		FutureBuilder.Future<String> future = hedging.run(() ->
+			attempts.incrementAndGet() == 1
+				? sleepThenReturn(10_000, "primary", interrupted)
+				: "hedge"
+		);
+
+		assertThat(future.tryGet(5, TimeUnit.SECONDS).unsafeGet(), is("hedge"));
+		assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+		assertThat(hedging.hedgesFired(), is(1L));
+		assertThat(hedging.hedgesWon(), is(1L));
+	}
+
+	@Test
+	public void 予算を使い切るとヘッジしない() throws Exception {
+
+		Hedging hedging = Hedging.builder(builder)
+			.delay(10, TimeUnit.MILLISECONDS)
+			.maxExtraLoad(0)
+			.burst(1)
+			.build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(hedging.run(() -> {
+				attempts.incrementAndGet();
+				sleep(50);
+				return "value";
+			}).tryGet().unsafeGet(), is("value"));
+		}
+
+		assertThat(hedging.callCount(), is(3L));
+		assertThat(hedging.hedgesFired(), is(1L));
+		assertThat(attempts.get(), is(4));
+	}
+
+	@Test
+	public void 全ての試行が失敗すると失敗になる() throws Exception {
+
+		Hedging hedging = Hedging.builder(builder).delay(10, TimeUnit.MILLISECONDS).build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		FutureBuilder.Future<String> future = hedging.run(() -> {
+			sleep(50);
+			throw new IllegalStateException("attempt " + attempts.incrementAndGet());
+		});
+
+		assertThat(future.tryGet().fold(v -> null, Object::getClass), is((Object) IllegalStateException.class));
+		assertThat(attempts.get(), is(2));
+	}
+
+	@Test
+	public void 遅延は記録したレイテンシのパーセンタイルに追従する() throws Exception {
+
+		Hedging hedging = Hedging.builder(builder)
+			.delay(1, TimeUnit.SECONDS)
+			.percentileDelay(0.5, 10)
+			.build();
+
+		assertThat(hedging.currentDelayNanos(), is(TimeUnit.SECONDS.toNanos(1)));
+		for (int i = 0; i < 10; i++) {
+			hedging.run(() -> "value").tryGet();
+		}
+
+		assertTrue(hedging.currentDelayNanos() < TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	public void 結果を取り消すと全ての試行が取り消される() throws Exception {
+
+		Hedging hedging = Hedging.builder(builder).delay(10, TimeUnit.MILLISECONDS).build();
+		CountDownLatch interrupted = new CountDownLatch(2);
+
+		FutureBuilder.Future<String> future = hedging.run(() -> sleepThenReturn(10_000, "value", interrupted));
+		sleep(100);
+
+		assertTrue(future.cancel());
+		assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+		assertThat(hedging.hedgesFired(), is(1L));
+	}
+}
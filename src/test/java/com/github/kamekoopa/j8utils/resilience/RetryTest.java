@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 kamekoopa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.kamekoopa.j8utils.resilience;
+
+import com.github.kamekoopa.j8utils.data.FutureBuilder;
+import com.github.kamekoopa.j8utils.data.Try;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class RetryTest {
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private final FutureBuilder builder = FutureBuilder.buildWith(executor);
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void 成功するまで再試行される() throws Exception {
+
+		Retry retry = Retry.builder(builder).maxAttempts(3).backoff(1, 10, TimeUnit.MILLISECONDS).build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		Try<String> result = retry.<String>rune(() -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new IOException("attempt " + attempts.get());
+			}
+			return "value";
+		}).tryGet().unsafeGet();
+
+		assertThat(result.unsafeGet(), is("value"));
+		assertThat(attempts.get(), is(3));
+		assertThat(retry.retryCount(), is(2L));
+	}
+
+	@Test
+	public void 試行回数を使い切ると最後の失敗を返す() throws Exception {
+
+		Retry retry = Retry.builder(builder).maxAttempts(3).backoff(1, 10, TimeUnit.MILLISECONDS).build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		Try<String> result = retry.<String>run(() -> {
+			throw new IllegalStateException("attempt " + attempts.incrementAndGet());
+		}).tryGet().unsafeGet();
+
+		assertThat(result.fold(v -> null, Exception::getMessage), is("attempt 3"));
+	}
+
+	@Test
+	public void 再試行対象外の例外は再試行しない() throws Exception {
+
+		Retry retry = Retry.builder(builder)
+			.backoff(1, 10, TimeUnit.MILLISECONDS)
+			.retryOn(e -> e instanceof IOException)
+			.build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		Try<String> result = retry.<String>run(() -> {
+			attempts.incrementAndGet();
+			throw new IllegalArgumentException("bad request");
+		}).tryGet().unsafeGet();
+
+		assertThat(result.isFailure(), is(true));
+		assertThat(attempts.get(), is(1));
+	}
+
+	@Test
+	public void 予算を使い切ると再試行しない() throws Exception {
+
+		RetryBudget budget = RetryBudget.create(0, 1);
+		Retry retry = Retry.builder(builder)
+			.maxAttempts(3)
+			.backoff(1, 10, TimeUnit.MILLISECONDS)
+			.budget(budget)
+			.build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			retry.<String>run(() -> {
+				attempts.incrementAndGet();
+				throw new IllegalStateException("fail");
+			}).tryGet();
+		}
+
+		assertThat(attempts.get(), is(3));
+		assertThat(budget.callCount(), is(2L));
+		assertThat(budget.acquiredCount(), is(1L));
+		assertThat(budget.rejectedCount(), is(2L));
+	}
+
+	@Test
+	public void 待機中はスレッドを占有しない() throws Exception {
+
+		Retry retry = Retry.builder(builder).maxAttempts(2).backoff(500, 500, TimeUnit.MILLISECONDS).jitter(0).build();
+		AtomicInteger attempts = new AtomicInteger();
+
+		FutureBuilder.Future<Try<String>> retrying = retry.run(() -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new IllegalStateException("fail");
+			}
+			return "retried";
+		});
+
+		// 単一スレッドの executor でも、待機中に別の処理が実行できる
+		assertThat(builder.run(() -> "other").tryGet(100, TimeUnit.MILLISECONDS).unsafeGet(), is("other"));
+		assertThat(retrying.tryGet().unsafeGet().unsafeGet(), is("retried"));
+	}
+
+	@Test
+	public void 待機時間は指数的に増え上限で頭打ちになる() throws Exception {
+
+		Retry retry = Retry.builder(builder).backoff(10, 50, TimeUnit.MILLISECONDS).multiplier(2).jitter(0).build();
+
+		assertThat(retry.delayNanos(1), is(TimeUnit.MILLISECONDS.toNanos(10)));
+		assertThat(retry.delayNanos(2), is(TimeUnit.MILLISECONDS.toNanos(20)));
+		assertThat(retry.delayNanos(3), is(TimeUnit.MILLISECONDS.toNanos(40)));
+		assertThat(retry.delayNanos(4), is(TimeUnit.MILLISECONDS.toNanos(50)));
+	}
+
+	@Test
+	public void jitterは上限以下の範囲に揺らぐ() throws Exception {
+
+		Retry retry = Retry.builder(builder).backoff(10, 10, TimeUnit.MILLISECONDS).jitter(1).build();
+
+		for (int i = 0; i < 100; i++) {
+			long delay = retry.delayNanos(1);
+			assertTrue(0 <= delay && delay <= TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+}
@@ -68,6 +68,21 @@ public class FE2Test {
 		assertThat(f.apply("a","b"), is("ab"));
 	}
 
+	@Test
+	public void メモ化できる() throws Exception {
+
+		int[] count = { 0 };
+		FE2<String, String, String> memoized = ((FE2<String, String, String>) (s1, s2) -> {
+			count[0]++;
+			return s1 + s2;
+		}).memoize();
+
+		assertThat(memoized.apply("a", "b"), is("ab"));
+		assertThat(memoized.apply("a", "b"), is("ab"));
+		assertThat(memoized.apply("b", "a"), is("ba"));
+		assertThat(count[0], is(2));
+	}
+
 	@Test(expected = Exception.class)
 	public void applyeは例外をスローできる() throws Exception {
 
@@ -17,6 +17,7 @@
 package com.github.kamekoopa.j8utils.utils;
 
 
+import com.github.kamekoopa.j8utils.data.ConsList;
 import com.github.kamekoopa.j8utils.data.Option;
 import com.github.kamekoopa.j8utils.data.Tuple2;
 import com.github.kamekoopa.j8utils.test.Tools.A;
@@ -32,11 +33,13 @@ import org.junit.runners.JUnit4;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.github.kamekoopa.j8utils.utils.Utils.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -450,6 +453,190 @@ public class UtilsTest {
 	}
 
 
+	@RunWith(JUnit4.class)
+	public static class 並列streamをzipする時 {
+
+		private static List<Integer> range(int size) {
+			return IntStream.range(0, size).boxed().collect(Collectors.toList());
+		}
+
+		private static void assertZipped(List<Tuple2<Integer, Integer>> zipped, int size) {
+			assertThat(zipped.size(), is(size));
+			for (int i = 0; i < size; i++) {
+				assertThat(zipped.get(i), is(Tuple2.of(i, i)));
+			}
+		}
+
+		@Test
+		public void 同じ要素数のリスト同士なら同じ位置で分割され正しく結合される() throws Exception {
+
+			List<Tuple2<Integer, Integer>> zipped = zip(range(100000).parallelStream(), range(100000).parallelStream())
+				.collect(Collectors.toList());
+
+			assertZipped(zipped, 100000);
+		}
+
+		@Test
+		public void 分割位置が異なるstream同士でも正しく結合される() throws Exception {
+
+			List<Tuple2<Integer, Integer>> zipped = zip(range(100000).parallelStream(), new LinkedList<>(range(100000)).parallelStream())
+				.collect(Collectors.toList());
+
+			assertZipped(zipped, 100000);
+		}
+
+		@Test
+		public void 要素数が異なるstream同士でも正しく結合される() throws Exception {
+
+			List<Tuple2<Integer, Integer>> zipped = zip(range(100000).parallelStream(), range(70000).parallelStream())
+				.collect(Collectors.toList());
+
+			assertZipped(zipped, 70000);
+		}
+
+		@Test
+		public void サイズが不明なstreamとも正しく結合される() throws Exception {
+
+			List<Tuple2<Integer, Integer>> zipped = zip(Stream.iterate(0, i -> i + 1).parallel(), range(100000).parallelStream())
+				.collect(Collectors.toList());
+
+			assertZipped(zipped, 100000);
+		}
+
+		@Test
+		public void 元のstreamが並列なら結果も並列になる() throws Exception {
+
+			assertTrue(zipWith(range(10).parallelStream(), range(10).stream(), Integer::sum).isParallel());
+			assertFalse(zipWith(range(10).stream(), range(10).stream(), Integer::sum).isParallel());
+		}
+
+		@Test
+		public void 並列に集計しても結果が変わらない() throws Exception {
+
+			long sum = zipWith(range(100000).parallelStream(), range(100000).parallelStream(), Integer::sum)
+				.mapToLong(Integer::longValue)
+				.sum();
+
+			assertThat(sum, is(2L * (99999L * 100000L / 2)));
+		}
+	}
+
+
+	@RunWith(JUnit4.class)
+	public static class indexを使う時 {
+
+		List<String> list;
+
+		@Before
+		public void setup() {
+			this.list = IntStream.range(0, 100000).mapToObj(String::valueOf).collect(Collectors.toList());
+		}
+
+		@Test
+		public void forEachWithIndexでindexと要素を受け取れる() throws Exception {
+
+			List<String> result = new ArrayList<>();
+			forEachWithIndex(Arrays.asList("a", "b", "c"), (i, s) -> result.add(i + s));
+
+			assertThat(result, is(Arrays.asList("0a", "1b", "2c")));
+		}
+
+		@Test
+		public void mapWithIndexでindexと要素から値を写せる() throws Exception {
+
+			List<String> result = mapWithIndex(Arrays.asList("a", "b", "c"), (i, s) -> i + s);
+
+			assertThat(result, is(Arrays.asList("0a", "1b", "2c")));
+		}
+
+		@Test
+		public void 並列streamでもmapWithIndexのindexが正しく振られる() throws Exception {
+
+			List<Boolean> result = mapWithIndex(list.parallelStream(), (i, s) -> String.valueOf(i).equals(s))
+				.collect(Collectors.toList());
+
+			assertThat(result.size(), is(100000));
+			assertTrue(result.stream().allMatch(b -> b));
+		}
+
+		@Test
+		public void サイズが不明な並列streamでもmapWithIndexのindexが正しく振られる() throws Exception {
+
+			List<Boolean> result = mapWithIndex(Stream.iterate(0, i -> i + 1).limit(100000).parallel(), (i, n) -> i == n)
+				.collect(Collectors.toList());
+
+			assertThat(result.size(), is(100000));
+			assertTrue(result.stream().allMatch(b -> b));
+		}
+
+		@Test
+		public void 並列streamをzipWithIndexしてもindexが正しく振られる() throws Exception {
+
+			List<Tuple2<Integer, String>> result = zipWithIndex(list.parallelStream()).collect(Collectors.toList());
+
+			assertThat(result.size(), is(100000));
+			assertTrue(result.stream().allMatch(t -> String.valueOf(t._1).equals(t._2)));
+		}
+
+		@Test
+		public void zipWithIndexViewでindexと要素のタプルを参照できる() throws Exception {
+
+			List<Tuple2<Integer, String>> view = zipWithIndexView(Arrays.asList("a", "b", "c"));
+
+			assertThat(view.size(), is(3));
+			assertThat(view.get(1), is(Tuple2.of(1, "b")));
+			assertThat(view, is(zipWithIndex(Arrays.asList("a", "b", "c"))));
+		}
+	}
+
+
+	@RunWith(JUnit4.class)
+	public static class ConsListの時 {
+
+		ConsList<Integer> list;
+
+		@Before
+		public void setup() {
+			this.list = ConsList.of(1, 2, 3);
+		}
+
+		@Test
+		public void headで最初の要素が取得できる() throws Exception {
+			assertThat(head(list), is(1));
+			assertThat(headOption(list), is(Option.of(1)));
+		}
+
+		@Test
+		public void tailでコピーせずに残りのリストが取得できる() throws Exception {
+			assertThat(tail(list), is(sameInstance(list.tail())));
+		}
+
+		@Test(expected = NoSuchElementException.class)
+		public void 空のリストのtailを取得しようとすると例外が発生する() throws Exception {
+			tail(ConsList.nil());
+		}
+
+		@Test
+		public void takeWhileで条件を満たさなくなるまでのリストが取得できる() throws Exception {
+			assertThat(takeWhile(list, i -> i < 3), is(ConsList.of(1, 2)));
+		}
+
+		@Test
+		public void 共変反変() throws Exception {
+
+			ConsList<B> bs = ConsList.of(new B(1, 2));
+
+			A a = Utils.<A>head(bs);
+			ConsList<A> as = Utils.<A>tail(bs);
+			ConsList<A> taken = Utils.<A>takeWhile(bs, x -> x.a > 0);
+
+			assertThat(a.a, is(1));
+			assertTrue(as.isEmpty());
+			assertThat(taken.size(), is(1));
+		}
+	}
+
+
 	@RunWith(JUnit4.class)
 	public static class マップに要素が存在しない時 {
 